@@ -0,0 +1,191 @@
+package org.word.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.word.convert.SpecConverter;
+import org.word.model.Table;
+import org.word.parser.DefinitionIndex;
+import org.word.parser.SwaggerParser;
+import org.word.parser.SwaggerSpec;
+import org.word.utils.JsonUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 转换流程分阶段的基准测试，每个阶段的输入都在 setup 中准备好
+ * <p>
+ * 运行：java -jar target/benchmarks.jar -prof gc，-p operations=1000 只跑指定规模
+ *
+ * @author XiuYin.Cui
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+@SuppressWarnings("unchecked")
+public class ConversionBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int operations;
+
+    private byte[] spec;
+
+    private byte[] definitions;
+
+    private SwaggerSpec parsed;
+
+    private List<Table> tables;
+
+    private Map<String, Object> rendered;
+
+    private final SwaggerParser parser = new SwaggerParser();
+
+    private final SpecConverter converter = new SpecConverter();
+
+    private SpringTemplateEngine templateEngine;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        SpecGenerator generator = new SpecGenerator(operations);
+        spec = generator.generate();
+        definitions = generator.generate(true);
+        parsed = parser.parse(new ByteArrayInputStream(spec));
+
+        // 渲染阶段使用已经封装好的 tableMap，只测模板本身，与服务一样使用 SpEL
+        Map<String, Object> result = converter.convert(parsed);
+        Map<String, List<Table>> tableMap = new TreeMap<>((Map<String, List<Table>>) result.get("tableMap"));
+        tables = new ArrayList<>(operations);
+        tableMap.values().forEach(tables::addAll);
+        rendered = new HashMap<>(result);
+        rendered.put("tableMap", tableMap);
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+    }
+
+    /**
+     * 只做词法解析，作为 json 解析的下限
+     */
+    @Benchmark
+    public void jsonTokenize(Blackhole blackhole) throws IOException {
+        try (JsonParser json = JsonUtils.createParser(new ByteArrayInputStream(spec))) {
+            while (json.nextToken() != null) {
+                blackhole.consume(json.currentToken());
+            }
+        }
+    }
+
+    /**
+     * 完整的流式解析：info、definitions、paths 和引用索引
+     */
+    @Benchmark
+    public SwaggerSpec parseSpec() throws IOException {
+        return parser.parse(new ByteArrayInputStream(spec));
+    }
+
+    /**
+     * 只包含 definitions 的文档，测量模型解析和索引
+     */
+    @Benchmark
+    public SwaggerSpec parseDefinitions() throws IOException {
+        return parser.parse(new ByteArrayInputStream(definitions));
+    }
+
+    @Benchmark
+    public DefinitionIndex buildIndex() {
+        return new DefinitionIndex(parsed.getDefinitions());
+    }
+
+    /**
+     * 封装全部接口，包括请求、返回示例
+     */
+    @Benchmark
+    public void processOperations(Blackhole blackhole) throws IOException {
+        Map<String, List<Table>> tableMap = (Map<String, List<Table>>) converter.convert(parsed).get("tableMap");
+        for (List<Table> group : tableMap.values()) {
+            blackhole.consume(group);
+        }
+    }
+
+    /**
+     * 只生成请求和返回示例
+     */
+    @Benchmark
+    public void exampleGeneration(Blackhole blackhole) throws IOException {
+        DefinitionIndex index = parsed.getIndex();
+        for (Table table : tables) {
+            blackhole.consume(converter.processRequestParam(table.getRequestList(), index));
+        }
+        for (DefinitionIndex.Node node : index.nodes()) {
+            blackhole.consume(converter.setObjectParams(node, index));
+        }
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        Context context = new Context();
+        context.setVariables(rendered);
+        context.setVariable("url", "http://localhost/v2/api-docs");
+        context.setVariable("download", 1);
+        CountingWriter writer = new CountingWriter();
+        templateEngine.process("word", context, writer);
+        blackhole.consume(writer.count);
+    }
+
+    /**
+     * 只计数不保存的 Writer
+     */
+    private static class CountingWriter extends Writer {
+
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
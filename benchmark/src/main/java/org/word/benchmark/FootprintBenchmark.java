@@ -0,0 +1,112 @@
+package org.word.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.word.convert.SpecConverter;
+import org.word.model.Table;
+import org.word.parser.SwaggerParser;
+import org.word.parser.SwaggerSpec;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析并封装一份文档后常驻的堆大小，对比开启和关闭字符串表
+ * <p>
+ * 运行：java -jar target/benchmarks.jar FootprintBenchmark，retainedKB 列是结果
+ *
+ * @author XiuYin.Cui
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:+UseSerialGC"})
+@State(Scope.Benchmark)
+@SuppressWarnings("unchecked")
+public class FootprintBenchmark {
+
+    @Param({"1000", "10000"})
+    public int operations;
+
+    @Param({"true", "false"})
+    public boolean internSymbols;
+
+    private byte[] spec;
+
+    private SwaggerParser parser;
+
+    private final SpecConverter converter = new SpecConverter();
+
+    /**
+     * 本次迭代的结果，保持可达直到测量结束
+     */
+    private Object retained;
+
+    private long baseline;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        spec = new SpecGenerator(operations).generate();
+        parser = new SwaggerParser(internSymbols);
+    }
+
+    @Setup(Level.Iteration)
+    public void before() {
+        retained = null;
+        baseline = usedHeap();
+    }
+
+    @Benchmark
+    public void parseAndConvert(Footprint footprint) throws IOException {
+        SwaggerSpec parsed = parser.parse(new ByteArrayInputStream(spec));
+        Map<String, List<Table>> tableMap = (Map<String, List<Table>>) converter.convert(parsed).get("tableMap");
+        List<Table> tables = new ArrayList<>(operations);
+        tableMap.values().forEach(tables::addAll);
+        retained = new Object[]{parsed, tables};
+        footprint.retainedKB = (usedHeap() - baseline) / 1024;
+    }
+
+    @TearDown(Level.Iteration)
+    public void after() {
+        retained = null;
+    }
+
+    /**
+     * full gc 之后的已用堆
+     */
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long retainedKB;
+    }
+}
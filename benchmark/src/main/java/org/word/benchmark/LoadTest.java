@@ -0,0 +1,465 @@
+package org.word.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.word.Application;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 压测：启动本地的 swagger json 服务和 Swagger2Word 服务，按设定的并发依次压测各个接口，
+ * 输出延迟分位数、吞吐、错误率、GC 暂停和峰值内存，完全不需要外网
+ * <p>
+ * 运行：java -cp target/benchmarks.jar org.word.benchmark.LoadTest --operations 1000 --concurrency 32 --duration 30
+ * <p>
+ * 压测客户端、swagger json 服务和被测服务在同一个进程中，GC 和内存包含三者；
+ * 用 --target 压测单独启动的服务时不统计 GC 和内存。
+ *
+ * @author XiuYin.Cui
+ */
+public class LoadTest {
+
+    private static final String USAGE = "usage: LoadTest [--operations 1000] [--specs 1] [--latency ms] [--failure-rate 0~1] [--no-etag] [--mutate]\n"
+            + "                [--concurrency 16] [--duration seconds] [--warmup seconds] [--endpoints toWord,downloadWord,downloadWordDocx,downloadWords,specIndex]\n"
+            + "                [--batch-size 4] [--target http://host:port] [--max-error-rate 0~1] [--max-p99 ms] [--app.<property>=<value>]...";
+
+    private static final List<String> ENDPOINTS = Arrays.asList("toWord", "downloadWord", "downloadWordDocx", "downloadWords", "specIndex");
+
+    private static final int CONNECT_TIMEOUT = 5 * 1000;
+
+    private static final int READ_TIMEOUT = 300 * 1000;
+
+    private int operations = 1000;
+
+    /**
+     * 不同文档的个数，请求轮流使用
+     */
+    private int specs = 1;
+
+    private long latency;
+
+    private double failureRate;
+
+    private boolean etag = true;
+
+    private boolean mutate;
+
+    private int concurrency = 16;
+
+    private int duration = 30;
+
+    private int warmup = 5;
+
+    private List<String> endpoints = Arrays.asList("toWord", "downloadWord", "downloadWordDocx", "downloadWords");
+
+    private int batchSize = 4;
+
+    /**
+     * 已经启动的服务，为 null 时在本进程中启动
+     */
+    private String target;
+
+    private double maxErrorRate = -1;
+
+    private long maxP99 = -1;
+
+    /**
+     * 传给被测服务的参数，--app.swagger.async.pool-size=8 传为 --swagger.async.pool-size=8
+     */
+    private final List<String> appArgs = new ArrayList<>();
+
+    private final GcMonitor gcMonitor = new GcMonitor();
+
+    public static void main(String[] args) throws Exception {
+        LoadTest test = new LoadTest();
+        if (!test.parseArgs(args)) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        System.exit(test.run(System.out) ? 0 : 1);
+    }
+
+    private boolean parseArgs(String[] args) {
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.startsWith("--app.")) {
+                    appArgs.add("--" + arg.substring("--app.".length()));
+                    continue;
+                }
+                switch (arg) {
+                    case "--no-etag":
+                        etag = false;
+                        continue;
+                    case "--mutate":
+                        mutate = true;
+                        continue;
+                    case "-h":
+                    case "--help":
+                        return false;
+                    default:
+                        break;
+                }
+                if (i + 1 >= args.length) {
+                    return false;
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--operations":
+                        operations = Integer.parseInt(value);
+                        break;
+                    case "--specs":
+                        specs = Math.max(1, Integer.parseInt(value));
+                        break;
+                    case "--latency":
+                        latency = Long.parseLong(value);
+                        break;
+                    case "--failure-rate":
+                        failureRate = Double.parseDouble(value);
+                        break;
+                    case "--concurrency":
+                        concurrency = Math.max(1, Integer.parseInt(value));
+                        break;
+                    case "--duration":
+                        duration = Math.max(1, Integer.parseInt(value));
+                        break;
+                    case "--warmup":
+                        warmup = Math.max(0, Integer.parseInt(value));
+                        break;
+                    case "--endpoints":
+                        endpoints = Arrays.asList(value.split(","));
+                        break;
+                    case "--batch-size":
+                        batchSize = Math.max(1, Integer.parseInt(value));
+                        break;
+                    case "--target":
+                        target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                        break;
+                    case "--max-error-rate":
+                        maxErrorRate = Double.parseDouble(value);
+                        break;
+                    case "--max-p99":
+                        maxP99 = Long.parseLong(value);
+                        break;
+                    default:
+                        return false;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return ENDPOINTS.containsAll(endpoints);
+    }
+
+    /**
+     * @return 没有设置阈值，或全部接口都在阈值内时返回 true
+     */
+    public boolean run(PrintStream console) throws Exception {
+        // 默认每个地址只保持 5 个空闲连接，并发高时会不断新建连接
+        System.setProperty("http.maxConnections", String.valueOf(concurrency));
+        boolean passed = true;
+        try (StubSwaggerServer stub = new StubSwaggerServer(operations, latency, failureRate, etag, mutate).start()) {
+            ConfigurableApplicationContext context = null;
+            String base = target;
+            if (base == null) {
+                List<String> args = new ArrayList<>(Arrays.asList("--server.port=0", "--spring.main.banner-mode=off", "--logging.level.root=WARN"));
+                args.addAll(appArgs);
+                context = SpringApplication.run(Application.class, args.toArray(new String[0]));
+                base = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+                gcMonitor.install();
+            }
+            try {
+                console.printf(Locale.ROOT, "operations=%d specs=%d latency=%dms failureRate=%.2f etag=%s mutate=%s concurrency=%d duration=%ds%n",
+                        operations, specs, latency, failureRate, etag, mutate, concurrency, duration);
+                console.println(Result.HEADER);
+                for (String endpoint : endpoints) {
+                    if (warmup > 0) {
+                        phase(base, stub, endpoint, warmup);
+                    }
+                    Result result = phase(base, stub, endpoint, duration);
+                    console.println(result.format());
+                    if ((maxErrorRate >= 0 && result.errorRate() > maxErrorRate)
+                            || (maxP99 >= 0 && result.percentile(0.99) > maxP99)) {
+                        console.println("  ^ exceeds threshold");
+                        passed = false;
+                    }
+                }
+                console.printf("stub: %d requests, %d failures, %d not modified%n",
+                        stub.getRequests(), stub.getFailures(), stub.getNotModified());
+            } finally {
+                if (context != null) {
+                    context.close();
+                }
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * 按设定的并发持续请求一个接口
+     */
+    private Result phase(String base, StubSwaggerServer stub, String endpoint, int seconds) throws Exception {
+        resetPeakRss();
+        long gcCount = gcMonitor.count.get();
+        long gcTime = gcMonitor.total.get();
+        gcMonitor.max.set(0);
+        AtomicInteger sequence = new AtomicInteger();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Future<Worker>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(clients.submit(() -> {
+                Worker worker = new Worker();
+                while (System.nanoTime() < deadline) {
+                    worker.request(base, stub, endpoint, sequence.getAndIncrement());
+                }
+                return worker;
+            }));
+        }
+        Result result = new Result(endpoint);
+        for (Future<Worker> future : futures) {
+            result.add(future.get());
+        }
+        clients.shutdown();
+        result.elapsedNanos = System.nanoTime() - start;
+        if (target == null) {
+            result.gcCount = gcMonitor.count.get() - gcCount;
+            result.gcMillis = gcMonitor.total.get() - gcTime;
+            result.gcMaxMillis = gcMonitor.max.get();
+            result.peakRssKb = peakRssKb();
+        }
+        return result;
+    }
+
+    private String path(StubSwaggerServer stub, String endpoint, int n) throws IOException {
+        String url = URLEncoder.encode(stub.url(n % specs), "UTF-8");
+        switch (endpoint) {
+            case "toWord":
+                return "/toWord?download=0&url=" + url;
+            case "downloadWord":
+                return "/downloadWord?url=" + url;
+            case "downloadWordDocx":
+                return "/downloadWord?format=docx&url=" + url;
+            case "specIndex":
+                return "/specIndex?url=" + url;
+            default:
+                return "/downloadWords";
+        }
+    }
+
+    /**
+     * 批量下载的请求体，连续的 batchSize 份文档
+     */
+    private byte[] batchBody(StubSwaggerServer stub, int n) {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < batchSize; i++) {
+            body.append(i == 0 ? "" : ",").append('"').append(stub.url((n + i) % specs)).append('"');
+        }
+        return body.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 清零 VmHWM，只在 Linux 上有效
+     */
+    private static void resetPeakRss() {
+        try {
+            Files.write(Paths.get("/proc/self/clear_refs"), "5".getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException | RuntimeException e) {
+            // 没有权限或不是 Linux 时只能得到进程启动以来的峰值
+        }
+    }
+
+    /**
+     * @return 没有 /proc 时为 -1
+     */
+    private static long peakRssKb() {
+        Path status = Paths.get("/proc/self/status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * 单个压测线程的结果
+     */
+    private class Worker {
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private int errors;
+
+        private long bytes;
+
+        private final byte[] buffer = new byte[64 * 1024];
+
+        void request(String base, StubSwaggerServer stub, String endpoint, int n) {
+            long start = System.nanoTime();
+            boolean ok = false;
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(base + path(stub, endpoint, n)).openConnection();
+                connection.setConnectTimeout(CONNECT_TIMEOUT);
+                connection.setReadTimeout(READ_TIMEOUT);
+                if ("downloadWords".equals(endpoint)) {
+                    connection.setRequestMethod("POST");
+                    connection.setDoOutput(true);
+                    connection.setRequestProperty("Content-Type", "application/json");
+                    try (OutputStream out = connection.getOutputStream()) {
+                        out.write(batchBody(stub, n));
+                    }
+                }
+                int status = connection.getResponseCode();
+                // 读完响应体，连接才能复用
+                try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                    if (in != null) {
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            bytes += read;
+                        }
+                    }
+                }
+                ok = status < 400;
+            } catch (IOException e) {
+                ok = false;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+            if (!ok) {
+                errors++;
+            }
+        }
+    }
+
+    /**
+     * 一个接口的压测结果
+     */
+    private static class Result {
+
+        static final String HEADER = String.format(Locale.ROOT, "%-17s %8s %7s %9s %8s %8s %8s %8s %8s %6s %8s %8s %9s",
+                "endpoint", "requests", "errors", "req/s", "MB/s", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)", "gc", "gc(ms)", "gcMax", "rss(MB)");
+
+        private final String endpoint;
+
+        private long[] latencies = new long[0];
+
+        private int errors;
+
+        private long bytes;
+
+        private long elapsedNanos;
+
+        private long gcCount = -1;
+
+        private long gcMillis = -1;
+
+        private long gcMaxMillis = -1;
+
+        private long peakRssKb = -1;
+
+        Result(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void add(Worker worker) {
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            errors += worker.errors;
+            bytes += worker.bytes;
+            Arrays.sort(latencies);
+        }
+
+        double errorRate() {
+            return latencies.length == 0 ? 0 : (double) errors / latencies.length;
+        }
+
+        /**
+         * @return 毫秒
+         */
+        long percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(latencies[Math.max(0, Math.min(index, latencies.length - 1))]);
+        }
+
+        String format() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format(Locale.ROOT, "%-17s %8d %6.2f%% %9.1f %8.1f %8d %8d %8d %8d %6s %8s %8s %9s",
+                    endpoint, latencies.length, errorRate() * 100, latencies.length / seconds, bytes / seconds / (1 << 20),
+                    percentile(0.5), percentile(0.9), percentile(0.99), percentile(1),
+                    orDash(gcCount), orDash(gcMillis), orDash(gcMaxMillis), peakRssKb < 0 ? "-" : String.valueOf(peakRssKb / 1024));
+        }
+
+        private static String orDash(long value) {
+            return value < 0 ? "-" : String.valueOf(value);
+        }
+    }
+
+    /**
+     * 通过 GC 通知统计次数、总耗时和最长一次的耗时（毫秒）
+     */
+    private static class GcMonitor {
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong total = new AtomicLong();
+
+        private final AtomicLong max = new AtomicLong();
+
+        void install() {
+            for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (!(bean instanceof NotificationEmitter)) {
+                    continue;
+                }
+                ((NotificationEmitter) bean).addNotificationListener((notification, handback) -> {
+                    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                        return;
+                    }
+                    GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    long millis = info.getGcInfo().getDuration();
+                    count.incrementAndGet();
+                    total.addAndGet(millis);
+                    max.accumulateAndGet(millis, Math::max);
+                }, null, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package org.word.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * 生成指定接口数量的 Swagger 2 文档
+ * <p>
+ * 模型之间有 1~4 层嵌套和少量自引用，返回值使用 Springfox 风格的泛型包装：
+ * Result«XxxDto»、Result«List«XxxDto»»、Result«Page«XxxDto»»。相同参数生成的文档完全相同。
+ *
+ * @author XiuYin.Cui
+ */
+public class SpecGenerator {
+
+    private static final String[] SCALAR_TYPES = {"string", "integer", "number", "boolean"};
+
+    private static final String[] WRAPPERS = {"Result«%s»", "Result«List«%s»»", "Result«Page«%s»»"};
+
+    /**
+     * 每个标题下的接口数
+     */
+    private static final int OPERATIONS_PER_TAG = 25;
+
+    /**
+     * 每个模型被多少个接口共用
+     */
+    private static final int OPERATIONS_PER_DTO = 5;
+
+    private final int operations;
+
+    private final int dtos;
+
+    private final long seed;
+
+    public SpecGenerator(int operations) {
+        this(operations, 42L);
+    }
+
+    public SpecGenerator(int operations, long seed) {
+        this.operations = operations;
+        this.dtos = Math.max(4, operations / OPERATIONS_PER_DTO);
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        new SpecGenerator(operations).write(System.out, false);
+    }
+
+    /**
+     * 完整文档
+     */
+    public byte[] generate() {
+        return generate(false);
+    }
+
+    /**
+     * @param definitionsOnly 为 true 时只包含 definitions，用于单独测量模型解析
+     */
+    public byte[] generate(boolean definitionsOnly) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(operations * 1024);
+        try {
+            write(out, definitionsOnly);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public void write(OutputStream out, boolean definitionsOnly) throws IOException {
+        Random random = new Random(seed);
+        try (JsonGenerator json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("swagger", "2.0");
+            json.writeObjectFieldStart("info");
+            json.writeStringField("title", "synthetic " + operations);
+            json.writeStringField("version", "1.0");
+            json.writeStringField("description", "generated for benchmarks");
+            json.writeEndObject();
+            json.writeStringField("host", "localhost");
+            json.writeStringField("basePath", "/");
+            if (!definitionsOnly) {
+                writePaths(json, random);
+            }
+            writeDefinitions(json, random);
+            json.writeEndObject();
+        }
+    }
+
+    private void writePaths(JsonGenerator json, Random random) throws IOException {
+        json.writeObjectFieldStart("paths");
+        for (int i = 0; i < operations; i++) {
+            int tag = i / OPERATIONS_PER_TAG;
+            String dto = dtoName(i % dtos);
+            boolean post = i % 2 == 1;
+            json.writeObjectFieldStart("/api/tag" + tag + "/op" + i + (post ? "" : "/{id}"));
+            json.writeObjectFieldStart(post ? "post" : "get");
+            json.writeArrayFieldStart("tags");
+            json.writeString("tag" + tag + "-controller");
+            json.writeEndArray();
+            json.writeStringField("summary", "operation " + i);
+            json.writeStringField("operationId", "op" + i);
+            writeStrings(json, "consumes", "application/json");
+            writeStrings(json, "produces", "application/json;charset=UTF-8", "*/*");
+            json.writeArrayFieldStart("parameters");
+            if (post) {
+                json.writeStartObject();
+                json.writeStringField("in", "body");
+                json.writeStringField("name", "request");
+                json.writeStringField("description", dto);
+                json.writeBooleanField("required", true);
+                json.writeObjectFieldStart("schema");
+                if (random.nextInt(4) == 0) {
+                    json.writeStringField("type", "array");
+                    json.writeObjectFieldStart("items");
+                    writeRef(json, dto);
+                    json.writeEndObject();
+                } else {
+                    writeRef(json, dto);
+                }
+                json.writeEndObject();
+                json.writeEndObject();
+            } else {
+                writeParameter(json, "path", "id", "integer", true);
+            }
+            int queries = random.nextInt(4);
+            for (int q = 0; q < queries; q++) {
+                writeParameter(json, "query", "q" + q, SCALAR_TYPES[random.nextInt(SCALAR_TYPES.length)], false);
+            }
+            json.writeEndArray();
+            json.writeObjectFieldStart("responses");
+            json.writeObjectFieldStart("200");
+            json.writeStringField("description", "OK");
+            json.writeObjectFieldStart("schema");
+            String wrapper = String.format(WRAPPERS[i % WRAPPERS.length], dto);
+            writeRef(json, wrapper);
+            json.writeStringField("originalRef", wrapper);
+            json.writeEndObject();
+            json.writeEndObject();
+            for (String code : new String[]{"401", "403", "404"}) {
+                json.writeObjectFieldStart(code);
+                json.writeStringField("description", code);
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    private void writeDefinitions(JsonGenerator json, Random random) throws IOException {
+        json.writeObjectFieldStart("definitions");
+        for (int i = 0; i < dtos; i++) {
+            String dto = dtoName(i);
+            json.writeObjectFieldStart(dto);
+            json.writeStringField("type", "object");
+            json.writeStringField("title", dto);
+            json.writeObjectFieldStart("properties");
+            int scalars = 4 + random.nextInt(9);
+            for (int p = 0; p < scalars; p++) {
+                String type = SCALAR_TYPES[random.nextInt(SCALAR_TYPES.length)];
+                json.writeObjectFieldStart("field" + p);
+                json.writeStringField("type", type);
+                if ("integer".equals(type)) {
+                    json.writeStringField("format", "int64");
+                }
+                json.writeStringField("description", dto + " field " + p);
+                json.writeEndObject();
+            }
+            // 每 4 个模型为一条链，嵌套深度 1~4
+            if (i % 4 != 0) {
+                json.writeObjectFieldStart("child");
+                writeRef(json, dtoName(i - 1));
+                json.writeEndObject();
+                json.writeObjectFieldStart("children");
+                json.writeStringField("type", "array");
+                json.writeObjectFieldStart("items");
+                writeRef(json, dtoName(i - 1));
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            if (i % 50 == 0) {
+                json.writeObjectFieldStart("parent");
+                writeRef(json, dto);
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+
+            writeWrapper(json, String.format(WRAPPERS[0], dto), dto, false);
+            writeWrapper(json, String.format(WRAPPERS[1], dto), dto, true);
+            writePage(json, dto);
+            writeWrapper(json, String.format(WRAPPERS[2], dto), "Page«" + dto + "»", false);
+        }
+        json.writeEndObject();
+    }
+
+    private void writeWrapper(JsonGenerator json, String name, String data, boolean array) throws IOException {
+        json.writeObjectFieldStart(name);
+        json.writeStringField("type", "object");
+        json.writeStringField("title", name);
+        json.writeObjectFieldStart("properties");
+        json.writeObjectFieldStart("code");
+        json.writeStringField("type", "integer");
+        json.writeStringField("format", "int32");
+        json.writeEndObject();
+        json.writeObjectFieldStart("msg");
+        json.writeStringField("type", "string");
+        json.writeEndObject();
+        json.writeObjectFieldStart("data");
+        if (array) {
+            json.writeStringField("type", "array");
+            json.writeObjectFieldStart("items");
+            writeRef(json, data);
+            json.writeEndObject();
+        } else {
+            json.writeStringField("type", "object");
+            writeRef(json, data);
+        }
+        json.writeEndObject();
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private void writePage(JsonGenerator json, String dto) throws IOException {
+        String name = "Page«" + dto + "»";
+        json.writeObjectFieldStart(name);
+        json.writeStringField("type", "object");
+        json.writeStringField("title", name);
+        json.writeObjectFieldStart("properties");
+        for (String field : new String[]{"current", "size", "total"}) {
+            json.writeObjectFieldStart(field);
+            json.writeStringField("type", "integer");
+            json.writeStringField("format", "int64");
+            json.writeEndObject();
+        }
+        json.writeObjectFieldStart("records");
+        json.writeStringField("type", "array");
+        json.writeObjectFieldStart("items");
+        writeRef(json, dto);
+        json.writeEndObject();
+        json.writeEndObject();
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private static void writeParameter(JsonGenerator json, String in, String name, String type, boolean required) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("in", in);
+        json.writeStringField("name", name);
+        json.writeStringField("description", name);
+        json.writeBooleanField("required", required);
+        json.writeStringField("type", type);
+        json.writeEndObject();
+    }
+
+    private static void writeRef(JsonGenerator json, String name) throws IOException {
+        json.writeStringField("$ref", "#/definitions/" + name);
+    }
+
+    private static void writeStrings(JsonGenerator json, String field, String... values) throws IOException {
+        json.writeArrayFieldStart(field);
+        for (String value : values) {
+            json.writeString(value);
+        }
+        json.writeEndArray();
+    }
+
+    private static String dtoName(int i) {
+        return "Dto" + i;
+    }
+}
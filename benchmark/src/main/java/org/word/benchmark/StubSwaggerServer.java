@@ -0,0 +1,198 @@
+package org.word.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 本地的 swagger json 服务，用于压测，不依赖外网
+ * <p>
+ * GET /specs/{n} 返回第 n 份生成的文档（接口数相同，内容不同），可以设置响应延迟、失败比例和是否带 ETag；
+ * mutate 为 true 时每次响应内容都不同，缓存不再命中，每次都走完整的获取、解析和渲染。
+ *
+ * @author XiuYin.Cui
+ */
+public class StubSwaggerServer implements AutoCloseable {
+
+    public static final String PATH = "/specs/";
+
+    private final int operations;
+
+    /**
+     * 每次响应前等待的毫秒数
+     */
+    private final long latencyMillis;
+
+    /**
+     * 返回 500 的比例，0 ~ 1
+     */
+    private final double failureRate;
+
+    private final boolean etag;
+
+    private final boolean mutate;
+
+    /**
+     * 每份文档只生成一次
+     */
+    private final Map<Integer, Spec> specs = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final AtomicLong notModified = new AtomicLong();
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    public StubSwaggerServer(int operations, long latencyMillis, double failureRate, boolean etag, boolean mutate) {
+        this.operations = operations;
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+        this.etag = etag;
+        this.mutate = mutate;
+    }
+
+    /**
+     * 在本机随机端口启动
+     */
+    public StubSwaggerServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "stub-swagger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+        server.start();
+        return this;
+    }
+
+    /**
+     * 第 n 份文档的地址
+     */
+    public String url(int n) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH + n;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            int n;
+            try {
+                n = Integer.parseInt(exchange.getRequestURI().getPath().substring(PATH.length()));
+            } catch (NumberFormatException e) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                failures.incrementAndGet();
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            Spec spec = specs.computeIfAbsent(n, this::generate);
+            if (etag && !mutate) {
+                exchange.getResponseHeaders().set("ETag", spec.etag);
+                if (spec.etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (mutate) {
+                // 在开头插入一个不影响解析的字段，内容摘要每次都不同
+                byte[] prefix = ("{\"x-request\":" + requests.get() + ",").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, prefix.length + spec.body.length - 1);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(prefix);
+                    out.write(spec.body, 1, spec.body.length - 1);
+                }
+            } else if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                send(exchange, spec.gzip);
+            } else {
+                send(exchange, spec.body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void send(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Spec generate(int n) {
+        byte[] body = new SpecGenerator(operations, 42L + n).generate();
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(body.length / 8);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Spec(body, gzip.toByteArray(), "\"" + operations + "-" + n + "\"");
+    }
+
+    private static class Spec {
+
+        private final byte[] body;
+
+        private final byte[] gzip;
+
+        private final String etag;
+
+        Spec(byte[] body, byte[] gzip, String etag) {
+            this.body = body;
+            this.gzip = gzip;
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.word.cache;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 缓存统计
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class CacheStats implements Serializable {
+
+    private static final long serialVersionUID = -1416515041440807335L;
+
+    /**
+     * 当前条目数
+     */
+    private int size;
+
+    /**
+     * 当前权重之和，按条目计数的缓存与 size 相同
+     */
+    private long weight;
+
+    /**
+     * 命中次数
+     */
+    private long hits;
+
+    /**
+     * 未命中次数
+     */
+    private long misses;
+
+    /**
+     * 因容量或过期被淘汰的条目数
+     */
+    private long evictions;
+}
@@ -0,0 +1,459 @@
+package org.word.cache;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.word.utils.HashUtils;
+import org.word.utils.IoUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 磁盘上的文档缓存，重启后仍然可用：获取的 swagger json 和渲染结果
+ * <p>
+ * 内容按 SHA-256 存放在 objects 下，相同内容只存一份，总大小超过上限时淘汰最久没有读取的内容；
+ * refs 下每个 key 一个小文件，记录指向的内容和校验头。所有文件先写到 tmp 再原子替换，进程中断不会留下不完整的文件。
+ * 启动时扫描目录重建索引，清理不完整的临时文件、失效的引用和没有被引用的内容。
+ *
+ * @author XiuYin.Cui
+ */
+@Slf4j
+@Component
+public class DiskStore {
+
+    /**
+     * 获取的 swagger json，以来源地址为 key
+     */
+    private static final String SPEC_PREFIX = "spec:";
+
+    /**
+     * 渲染结果，以渲染缓存的 key 为 key
+     */
+    private static final String RENDER_PREFIX = "render:";
+
+    private final Path root;
+
+    private final long maxBytes;
+
+    /**
+     * 内容摘要 -> 文件大小，按读取顺序淘汰，淘汰时删除文件
+     */
+    private LruCache<String, Long> objects;
+
+    private final Map<String, Ref> refs = new ConcurrentHashMap<>();
+
+    /**
+     * 渲染结果在后台单线程写入，队列满时放弃写入
+     */
+    private ThreadPoolExecutor writer;
+
+    /**
+     * @param dir      存放目录，为空时不启用
+     * @param maxBytes 内容文件总大小上限
+     */
+    public DiskStore(@Value("${swagger.disk-store.dir:}") String dir,
+                     @Value("${swagger.disk-store.max-bytes:2147483648}") long maxBytes) {
+        this.root = StringUtils.isBlank(dir) ? null : Paths.get(dir.trim()).toAbsolutePath();
+        this.maxBytes = maxBytes;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (root == null) {
+            return;
+        }
+        objects = new LruCache<>(maxBytes, 0, TimeUnit.MILLISECONDS, Long::longValue, (hash, size) -> delete(objectPath(hash)));
+        writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(64), r -> {
+            Thread thread = new Thread(r, "disk-store");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        Files.createDirectories(root.resolve("objects"));
+        Files.createDirectories(root.resolve("refs"));
+        Files.createDirectories(root.resolve("tmp"));
+        scan();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer != null) {
+            writer.shutdown();
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return root != null;
+    }
+
+    public static String specKey(String location) {
+        return SPEC_PREFIX + location;
+    }
+
+    public static String renderKey(String key) {
+        return RENDER_PREFIX + key;
+    }
+
+    /**
+     * @return 引用的内容已被淘汰时为 null
+     */
+    public Ref get(String key) {
+        if (root == null) {
+            return null;
+        }
+        Ref ref = refs.get(key);
+        if (ref == null) {
+            return null;
+        }
+        if (objects.get(ref.getObject()) == null) {
+            refs.remove(key, ref);
+            delete(refPath(key));
+            return null;
+        }
+        Path path = objectPath(ref.getObject());
+        try {
+            // 最近读取的时间，重启后按它恢复淘汰顺序
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("touch {} failed", path, e);
+        }
+        ref.setPath(path);
+        return ref;
+    }
+
+    /**
+     * 记录 key 指向已写入的内容
+     *
+     * @param object       {@link ObjectWriter#commit()} 返回的摘要
+     * @param etag         可以为 null
+     * @param lastModified -1 表示没有
+     */
+    public void put(String key, String object, String etag, long lastModified) {
+        if (root == null || object == null) {
+            return;
+        }
+        Ref ref = new Ref();
+        ref.setKey(key);
+        ref.setObject(object);
+        ref.setEtag(etag);
+        ref.setLastModified(lastModified);
+        Properties properties = new Properties();
+        properties.setProperty("key", key);
+        properties.setProperty("object", object);
+        if (etag != null) {
+            properties.setProperty("etag", etag);
+        }
+        properties.setProperty("lastModified", String.valueOf(lastModified));
+        try (ObjectWriter out = new ObjectWriter()) {
+            Writer text = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            properties.store(text, null);
+            text.flush();
+            out.moveTo(refPath(key));
+            refs.put(key, ref);
+        } catch (IOException e) {
+            log.warn("write ref {} failed", key, e);
+        }
+    }
+
+    /**
+     * 在后台写入内容和引用，不阻塞调用方
+     *
+     * @param content 写入期间不能修改，position 不受影响
+     */
+    public void putAsync(String key, ByteBuffer content) {
+        if (root == null) {
+            return;
+        }
+        ByteBuffer view = content.duplicate();
+        writer.execute(() -> {
+            try (ObjectWriter out = newObject()) {
+                if (out != null) {
+                    IoUtils.write(view, out);
+                    put(key, out.commit(), null, -1);
+                }
+            } catch (IOException e) {
+                log.warn("write {} failed", key, e);
+            }
+        });
+    }
+
+    /**
+     * 新内容先写到临时文件，{@link ObjectWriter#commit()} 后才可见，没有 commit 就关闭时删除
+     *
+     * @return 没有启用或无法创建临时文件时为 null，调用方直接跳过保存
+     */
+    public ObjectWriter newObject() {
+        if (root == null) {
+            return null;
+        }
+        try {
+            return new ObjectWriter();
+        } catch (IOException e) {
+            log.warn("create object in {} failed", root, e);
+            return null;
+        }
+    }
+
+    public void invalidate(String key) {
+        if (root != null && refs.remove(key) != null) {
+            delete(refPath(key));
+        }
+    }
+
+    public void invalidateAll() {
+        if (root == null) {
+            return;
+        }
+        for (String key : refs.keySet()) {
+            invalidate(key);
+        }
+        // 内容在下次启动时作为无引用的内容清理，正在读取的文件不受影响
+    }
+
+    /**
+     * size 为内容文件数，weight 为总字节数
+     */
+    public CacheStats stats() {
+        return objects == null ? new CacheStats() : objects.stats();
+    }
+
+    private void scan() throws IOException {
+        long start = System.currentTimeMillis();
+        try (Stream<Path> temps = Files.list(root.resolve("tmp"))) {
+            temps.forEach(DiskStore::delete);
+        }
+        // 按最近读取时间从旧到新放入，超过上限的部分直接淘汰
+        List<ObjectFile> found = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root.resolve("objects"), 2)) {
+            files.forEach(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        found.add(new ObjectFile(path.getFileName().toString(), attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    }
+                } catch (IOException e) {
+                    log.warn("read {} failed", path, e);
+                }
+            });
+        }
+        found.sort(Comparator.comparingLong(ObjectFile::getLastModified));
+        for (ObjectFile file : found) {
+            objects.put(file.getHash(), file.getSize());
+        }
+        Set<String> referenced = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root.resolve("refs"))) {
+            for (Path path : files) {
+                Ref ref = readRef(path);
+                if (ref == null || !Files.exists(objectPath(ref.getObject()))) {
+                    delete(path);
+                    continue;
+                }
+                refs.put(ref.getKey(), ref);
+                referenced.add(ref.getObject());
+            }
+        }
+        for (ObjectFile file : found) {
+            if (!referenced.contains(file.getHash()) && objects.invalidate(file.getHash()) != null) {
+                delete(objectPath(file.getHash()));
+            }
+        }
+        CacheStats stats = objects.stats();
+        log.info("disk store {}: {} refs, {} objects, {} bytes, scanned in {} ms",
+                root, refs.size(), stats.getSize(), stats.getWeight(), System.currentTimeMillis() - start);
+    }
+
+    private Ref readRef(Path path) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path);
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            log.warn("read {} failed", path, e);
+            return null;
+        }
+        String key = properties.getProperty("key");
+        String object = properties.getProperty("object");
+        if (key == null || object == null) {
+            return null;
+        }
+        Ref ref = new Ref();
+        ref.setKey(key);
+        ref.setObject(object);
+        ref.setEtag(properties.getProperty("etag"));
+        ref.setLastModified(Long.parseLong(properties.getProperty("lastModified", "-1")));
+        return ref;
+    }
+
+    private Path objectPath(String hash) {
+        return root.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path refPath(String key) {
+        return root.resolve("refs").resolve(HashUtils.sha256Hex(key));
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("delete {} failed", path, e);
+        }
+    }
+
+    /**
+     * 一个 key 指向的内容
+     */
+    @Data
+    public static class Ref {
+
+        private String key;
+
+        /**
+         * 内容的 SHA-256
+         */
+        private String object;
+
+        /**
+         * 获取时的 ETag，没有时为 null
+         */
+        private String etag;
+
+        /**
+         * 获取时的 Last-Modified，毫秒，-1 表示没有
+         */
+        private long lastModified = -1;
+
+        /**
+         * 内容文件，{@link #get(String)} 时设置
+         */
+        private Path path;
+    }
+
+    @Data
+    private static class ObjectFile {
+
+        private final String hash;
+
+        private final long size;
+
+        private final long lastModified;
+    }
+
+    /**
+     * 写入临时文件并计算摘要；写入失败（例如磁盘已满）不影响调用方，只是不会保存
+     */
+    public class ObjectWriter extends OutputStream {
+
+        private final Path temp;
+
+        private final FileOutputStream out;
+
+        private final MessageDigest digest = HashUtils.sha256();
+
+        private long size;
+
+        private boolean failed;
+
+        private boolean done;
+
+        ObjectWriter() throws IOException {
+            temp = Files.createTempFile(root.resolve("tmp"), "object", ".tmp");
+            out = new FileOutputStream(temp.toFile());
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (failed) {
+                return;
+            }
+            try {
+                out.write(b, off, len);
+                digest.update(b, off, len);
+                size += len;
+            } catch (IOException e) {
+                log.warn("write {} failed", temp, e);
+                failed = true;
+            }
+        }
+
+        /**
+         * 刷盘后按摘要原子地移动到 objects 下，相同内容已存在时直接复用
+         *
+         * @return 内容的 SHA-256，写入失败时为 null
+         */
+        public String commit() {
+            if (failed) {
+                return null;
+            }
+            String hash = HashUtils.toHex(digest.digest());
+            Path target = objectPath(hash);
+            try {
+                Files.createDirectories(target.getParent());
+                moveTo(target);
+            } catch (IOException e) {
+                log.warn("save {} failed", target, e);
+                return null;
+            }
+            objects.put(hash, size);
+            return hash;
+        }
+
+        void moveTo(Path target) throws IOException {
+            out.getFD().sync();
+            out.close();
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            done = true;
+        }
+
+        @Override
+        public void close() {
+            if (!done) {
+                done = true;
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    log.debug("close {} failed", temp, e);
+                }
+                delete(temp);
+            }
+        }
+    }
+}
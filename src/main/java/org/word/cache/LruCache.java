@@ -0,0 +1,186 @@
+package org.word.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * 按权重（默认为条目数）和写入时间淘汰的 LRU 缓存，线程安全
+ *
+ * @author XiuYin.Cui
+ */
+public class LruCache<K, V> {
+
+    private final long maxWeight;
+
+    private final long ttlNanos;
+
+    private final ToLongFunction<V> weigher;
+
+    /**
+     * 条目因容量或过期被淘汰时回调，可以为 null
+     */
+    private final BiConsumer<K, V> evictionListener;
+
+    private final LinkedHashMap<K, Node<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    /**
+     * @param maxSize 最大条目数
+     * @param ttl     写入后的存活时间，小于等于 0 表示不过期
+     * @param unit    时间单位
+     */
+    public LruCache(int maxSize, long ttl, TimeUnit unit) {
+        this(maxSize, ttl, unit, value -> 1L);
+    }
+
+    /**
+     * @param maxWeight 所有条目权重之和的上限
+     * @param ttl       写入后的存活时间，小于等于 0 表示不过期
+     * @param unit      时间单位
+     * @param weigher   计算单个条目的权重，例如字节数
+     */
+    public LruCache(long maxWeight, long ttl, TimeUnit unit, ToLongFunction<V> weigher) {
+        this(maxWeight, ttl, unit, weigher, null);
+    }
+
+    /**
+     * @param evictionListener 条目被淘汰时在持有锁的情况下回调，例如删除对应的文件；主动失效的条目不回调
+     */
+    public LruCache(long maxWeight, long ttl, TimeUnit unit, ToLongFunction<V> weigher, BiConsumer<K, V> evictionListener) {
+        this.maxWeight = Math.max(1, maxWeight);
+        this.ttlNanos = ttl > 0 ? unit.toNanos(ttl) : 0;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+    }
+
+    public synchronized V get(K key) {
+        Node<V> node = map.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        if (isExpired(node, System.nanoTime())) {
+            map.remove(key);
+            weight -= node.weight;
+            evictions++;
+            misses++;
+            onEviction(key, node);
+            return null;
+        }
+        hits++;
+        return node.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        Node<V> node = new Node<>(value, System.nanoTime(), weigher.applyAsLong(value));
+        Node<V> old = map.put(key, node);
+        weight += node.weight - (old == null ? 0 : old.weight);
+        evict();
+    }
+
+    public synchronized V invalidate(K key) {
+        Node<V> node = map.remove(key);
+        if (node == null) {
+            return null;
+        }
+        weight -= node.weight;
+        return node.value;
+    }
+
+    /**
+     * 移除 key 满足条件的条目
+     *
+     * @return 移除的条目数
+     */
+    public synchronized int invalidateIf(Predicate<K> condition) {
+        int removed = 0;
+        Iterator<Map.Entry<K, Node<V>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Node<V>> entry = it.next();
+            if (condition.test(entry.getKey())) {
+                it.remove();
+                weight -= entry.getValue().weight;
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void invalidateAll() {
+        map.clear();
+        weight = 0;
+    }
+
+    /**
+     * 当前所有条目的权重之和
+     */
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public synchronized CacheStats stats() {
+        CacheStats stats = new CacheStats();
+        stats.setSize(map.size());
+        stats.setWeight(weight);
+        stats.setHits(hits);
+        stats.setMisses(misses);
+        stats.setEvictions(evictions);
+        return stats;
+    }
+
+    /**
+     * 从最久未使用的一端淘汰超出容量的条目和排在前面的过期条目，遇到第一个保留的条目就停止，
+     * 每次写入的开销只与淘汰的条目数有关；排在中间的过期条目在访问时移除
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<K, Node<V>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Node<V>> entry = it.next();
+            if (weight <= maxWeight && !isExpired(entry.getValue(), now)) {
+                break;
+            }
+            it.remove();
+            weight -= entry.getValue().weight;
+            evictions++;
+            onEviction(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void onEviction(K key, Node<V> node) {
+        if (evictionListener != null) {
+            evictionListener.accept(key, node.value);
+        }
+    }
+
+    private boolean isExpired(Node<V> node, long now) {
+        return ttlNanos > 0 && now - node.writeTime > ttlNanos;
+    }
+
+    private static class Node<V> {
+
+        private final V value;
+
+        private final long writeTime;
+
+        private final long weight;
+
+        Node(V value, long writeTime, long weight) {
+            this.value = value;
+            this.writeTime = writeTime;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.word.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 渲染结果缓存，key 为文档摘要 + 模板版本，内容由调用方放在堆外内存中
+ *
+ * @author XiuYin.Cui
+ */
+@Component
+public class RenderCache {
+
+    private final LruCache<String, ByteBuffer> cache;
+
+    private final long maxEntryBytes;
+
+    public RenderCache(@Value("${swagger.render-cache.max-bytes:268435456}") long maxBytes,
+                       @Value("${swagger.render-cache.max-entry-bytes:67108864}") long maxEntryBytes,
+                       @Value("${swagger.render-cache.ttl-minutes:1440}") long ttlMinutes) {
+        this.cache = new LruCache<>(maxBytes, ttlMinutes, TimeUnit.MINUTES, ByteBuffer::capacity);
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * @param key
+     * @return 只读视图，position 为 0，调用方可以直接写出
+     */
+    public ByteBuffer get(String key) {
+        ByteBuffer buffer = cache.get(key);
+        return buffer == null ? null : buffer.duplicate();
+    }
+
+    /**
+     * 放入缓存
+     *
+     * @param key
+     * @param buffer 渲染结果，position 为 0，放入后不能再修改
+     */
+    public void put(String key, ByteBuffer buffer) {
+        if (buffer.remaining() > maxEntryBytes) {
+            return;
+        }
+        cache.put(key, buffer.asReadOnlyBuffer());
+    }
+
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
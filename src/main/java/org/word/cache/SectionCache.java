@@ -0,0 +1,46 @@
+package org.word.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大标题渲染片段缓存，key 为大标题内容摘要 + 模板版本，文档只改了几个接口时其余大标题直接复用
+ *
+ * @author XiuYin.Cui
+ */
+@Component
+public class SectionCache {
+
+    private final LruCache<String, String> cache;
+
+    private final long maxEntryChars;
+
+    public SectionCache(@Value("${swagger.section-cache.max-bytes:134217728}") long maxBytes,
+                        @Value("${swagger.section-cache.max-entry-bytes:8388608}") long maxEntryBytes,
+                        @Value("${swagger.section-cache.ttl-minutes:1440}") long ttlMinutes) {
+        // 按 char 两个字节估算
+        this.cache = new LruCache<>(maxBytes, ttlMinutes, TimeUnit.MINUTES, fragment -> fragment.length() * 2L);
+        this.maxEntryChars = maxEntryBytes / 2;
+    }
+
+    public String get(String key) {
+        return cache.get(key);
+    }
+
+    public void put(String key, String fragment) {
+        if (fragment.length() > maxEntryChars) {
+            return;
+        }
+        cache.put(key, fragment);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,71 @@
+package org.word.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 以 swagger 地址为 key 的解析结果缓存，配合 If-None-Match / If-Modified-Since 重新校验
+ *
+ * @author XiuYin.Cui
+ */
+@Component
+public class SpecCache {
+
+    private static final String VARIANT_SEPARATOR = "#";
+
+    private final LruCache<String, SpecCacheEntry> cache;
+
+    /**
+     * 上游返回 304，直接复用解析结果的次数
+     */
+    private final AtomicLong notModified = new AtomicLong();
+
+    public SpecCache(@Value("${swagger.cache.max-size:64}") int maxSize,
+                     @Value("${swagger.cache.ttl-minutes:1440}") long ttlMinutes) {
+        this.cache = new LruCache<>(maxSize, ttlMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 部分转换和目录的结果以 地址#筛选条件 为 key，与完整结果分开缓存
+     *
+     * @param variant 为空时就是地址本身
+     */
+    public static String key(String swaggerUrl, String variant) {
+        return variant == null || variant.isEmpty() ? swaggerUrl : swaggerUrl + VARIANT_SEPARATOR + variant;
+    }
+
+    public SpecCacheEntry get(String swaggerUrl) {
+        return cache.get(swaggerUrl);
+    }
+
+    public void put(String swaggerUrl, SpecCacheEntry entry) {
+        cache.put(swaggerUrl, entry);
+    }
+
+    public void markNotModified() {
+        notModified.incrementAndGet();
+    }
+
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    /**
+     * 同时移除该地址的部分转换和目录结果
+     */
+    public void invalidate(String swaggerUrl) {
+        cache.invalidate(swaggerUrl);
+        cache.invalidateIf(key -> key.startsWith(swaggerUrl + VARIANT_SEPARATOR));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
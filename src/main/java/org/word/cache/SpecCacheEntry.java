@@ -0,0 +1,33 @@
+package org.word.cache;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 已解析的 swagger 文档及其校验头
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class SpecCacheEntry {
+
+    /**
+     * 响应头 ETag
+     */
+    private String etag;
+
+    /**
+     * 响应头 Last-Modified，毫秒，-1 表示没有
+     */
+    private long lastModified = -1;
+
+    /**
+     * tableList 的解析结果
+     */
+    private Map<String, Object> result;
+
+    public boolean hasValidator() {
+        return etag != null || lastModified >= 0;
+    }
+}
@@ -0,0 +1,131 @@
+package org.word.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.word.model.SpecChanges;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个 swagger 地址最近几个版本的接口摘要，用来回答“某个版本之后改了哪些接口”
+ *
+ * @author XiuYin.Cui
+ */
+@Component
+public class SpecHistory {
+
+    private final LruCache<String, Deque<SpecVersion>> history;
+
+    private final int maxVersions;
+
+    public SpecHistory(@Value("${swagger.history.max-urls:64}") int maxUrls,
+                       @Value("${swagger.history.max-versions:20}") int maxVersions,
+                       @Value("${swagger.history.ttl-minutes:10080}") long ttlMinutes) {
+        this.history = new LruCache<>(maxUrls, ttlMinutes, TimeUnit.MINUTES);
+        this.maxVersions = maxVersions;
+    }
+
+    /**
+     * 记录新解析的版本，与最新版本相同时忽略
+     */
+    public void record(String url, String specHash, Map<String, String> operations, Map<String, String> sections) {
+        Deque<SpecVersion> versions;
+        synchronized (this) {
+            versions = history.get(url);
+            if (versions == null) {
+                versions = new ArrayDeque<>();
+                history.put(url, versions);
+            }
+        }
+        synchronized (versions) {
+            SpecVersion latest = versions.peekLast();
+            if (latest != null && latest.getSpecHash().equals(specHash)) {
+                return;
+            }
+            SpecVersion version = new SpecVersion();
+            version.setSpecHash(specHash);
+            version.setTime(System.currentTimeMillis());
+            version.setOperations(operations);
+            version.setSections(sections);
+            versions.addLast(version);
+            while (versions.size() > maxVersions) {
+                versions.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * 已记录的版本，从旧到新
+     */
+    public List<SpecVersion> versions(String url) {
+        Deque<SpecVersion> versions = history.get(url);
+        if (versions == null) {
+            return new ArrayList<>();
+        }
+        synchronized (versions) {
+            return new ArrayList<>(versions);
+        }
+    }
+
+    /**
+     * 比较指定版本与最新版本
+     *
+     * @param url
+     * @param since 起始版本摘要，为空时与上一个版本比较
+     * @return 版本不存在时返回 null
+     */
+    public SpecChanges changes(String url, String since) {
+        List<SpecVersion> versions = versions(url);
+        if (versions.isEmpty()) {
+            return null;
+        }
+        SpecVersion to = versions.get(versions.size() - 1);
+        SpecVersion from = null;
+        if (since == null) {
+            from = versions.size() > 1 ? versions.get(versions.size() - 2) : to;
+        } else {
+            for (SpecVersion version : versions) {
+                if (version.getSpecHash().startsWith(since)) {
+                    from = version;
+                    break;
+                }
+            }
+        }
+        if (from == null) {
+            return null;
+        }
+        SpecChanges changes = new SpecChanges();
+        changes.setUrl(url);
+        changes.setFrom(from.getSpecHash());
+        changes.setTo(to.getSpecHash());
+        for (Map.Entry<String, String> operation : to.getOperations().entrySet()) {
+            String before = from.getOperations().get(operation.getKey());
+            if (before == null) {
+                changes.getAdded().add(operation.getKey());
+            } else if (!before.equals(operation.getValue())) {
+                changes.getChanged().add(operation.getKey());
+            }
+        }
+        for (String path : from.getOperations().keySet()) {
+            if (!to.getOperations().containsKey(path)) {
+                changes.getRemoved().add(path);
+            }
+        }
+        Set<String> sections = new TreeSet<>(from.getSections().keySet());
+        sections.addAll(to.getSections().keySet());
+        for (String section : sections) {
+            if (!Objects.equals(from.getSections().get(section), to.getSections().get(section))) {
+                changes.getChangedSections().add(section);
+            }
+        }
+        return changes;
+    }
+}
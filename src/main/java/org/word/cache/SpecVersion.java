@@ -0,0 +1,37 @@
+package org.word.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 某个 swagger 地址的一个历史版本，只保留内容摘要
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class SpecVersion {
+
+    /**
+     * 文档摘要，即版本号
+     */
+    private String specHash;
+
+    /**
+     * 第一次解析到这个版本的时间
+     */
+    private long time;
+
+    /**
+     * 接口路径 -> 内容摘要
+     */
+    @JsonIgnore
+    private Map<String, String> operations;
+
+    /**
+     * 大标题 -> 内容摘要
+     */
+    @JsonIgnore
+    private Map<String, String> sections;
+}
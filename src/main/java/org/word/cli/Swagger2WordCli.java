@@ -0,0 +1,255 @@
+package org.word.cli;
+
+import org.word.convert.DocxWriter;
+import org.word.convert.HtmlWriter;
+import org.word.convert.SpecConverter;
+import org.word.parser.SwaggerParser;
+import org.word.parser.SwaggerSpec;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 命令行批量转换，不启动 Spring 容器
+ * <p>
+ * 输入可以是 json 文件、目录（递归查找 *.json）、glob（例如 'specs/**&#47;*.json'）或 http(s) 地址，
+ * 每个输入生成一个文档，有任何一个失败时退出码为 1。
+ *
+ * @author XiuYin.Cui
+ */
+public class Swagger2WordCli {
+
+    private static final String USAGE = "usage: Swagger2WordCli [-o outDir] [-f doc|docx] [-j threads] <file|dir|glob|url>...";
+
+    private static final int CONNECT_TIMEOUT = 5 * 1000;
+
+    private static final int READ_TIMEOUT = 60 * 1000;
+
+    private Path outDir = Paths.get(".");
+
+    private String format = "doc";
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private final List<String> inputs = new ArrayList<>();
+
+    private final SwaggerParser swaggerParser = new SwaggerParser();
+
+    private final SpecConverter specConverter = new SpecConverter();
+
+    private final DocxWriter docxWriter = new DocxWriter();
+
+    private final HtmlWriter htmlWriter = new HtmlWriter();
+
+    public static void main(String[] args) throws Exception {
+        Swagger2WordCli cli = new Swagger2WordCli();
+        if (!cli.parseArgs(args)) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        System.exit(cli.run(System.out) ? 0 : 1);
+    }
+
+    private boolean parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            boolean hasValue = i + 1 < args.length;
+            switch (arg) {
+                case "-o":
+                case "--out":
+                    if (!hasValue) {
+                        return false;
+                    }
+                    outDir = Paths.get(args[++i]);
+                    break;
+                case "-f":
+                case "--format":
+                    if (!hasValue) {
+                        return false;
+                    }
+                    format = args[++i].toLowerCase(Locale.ROOT);
+                    break;
+                case "-j":
+                case "--threads":
+                    if (!hasValue) {
+                        return false;
+                    }
+                    threads = Math.max(1, Integer.parseInt(args[++i]));
+                    break;
+                case "-h":
+                case "--help":
+                    return false;
+                default:
+                    inputs.add(arg);
+                    break;
+            }
+        }
+        return !inputs.isEmpty() && ("doc".equals(format) || "docx".equals(format));
+    }
+
+    /**
+     * @return 全部成功时返回 true
+     */
+    public boolean run(PrintStream console) throws IOException, InterruptedException {
+        List<String> sources = expand(inputs);
+        if (sources.isEmpty()) {
+            console.println("no swagger json found");
+            return false;
+        }
+        Files.createDirectories(outDir);
+        Set<String> names = new HashSet<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, sources.size()));
+        try {
+            List<Future<String>> futures = new ArrayList<>(sources.size());
+            for (String source : sources) {
+                Path target = outDir.resolve(uniqueName(names, baseName(source)) + "." + format);
+                futures.add(executor.submit(() -> convert(source, target)));
+            }
+            boolean success = true;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    console.println(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    success = false;
+                    console.println("FAILED " + sources.get(i) + ": " + e.getCause());
+                }
+            }
+            return success;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String convert(String source, Path target) throws IOException {
+        long start = System.nanoTime();
+        SwaggerSpec spec;
+        try (InputStream in = open(source)) {
+            spec = swaggerParser.parse(in);
+        }
+        Map<String, Object> result = specConverter.convert(spec);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), 64 * 1024)) {
+            if ("docx".equals(format)) {
+                docxWriter.write(result, out);
+            } else {
+                htmlWriter.write(result, out);
+            }
+        }
+        return String.format("OK %s -> %s (%d operations, %d ms)", source, target,
+                spec.getOperations().size(), (System.nanoTime() - start) / 1000000);
+    }
+
+    private static InputStream open(String source) throws IOException {
+        if (!isUrl(source)) {
+            return Files.newInputStream(Paths.get(source));
+        }
+        URLConnection connection = new URL(source).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        connection.setRequestProperty("Accept", "application/json, */*");
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        if (connection instanceof HttpURLConnection) {
+            int status = ((HttpURLConnection) connection).getResponseCode();
+            if (status >= 400) {
+                throw new IOException("HTTP " + status);
+            }
+        }
+        InputStream in = connection.getInputStream();
+        return "gzip".equalsIgnoreCase(connection.getContentEncoding()) ? new GZIPInputStream(in) : in;
+    }
+
+    /**
+     * 展开目录和 glob，保持输入顺序并去重
+     */
+    static List<String> expand(List<String> inputs) throws IOException {
+        Set<String> sources = new LinkedHashSet<>();
+        for (String input : inputs) {
+            if (isUrl(input)) {
+                sources.add(input);
+                continue;
+            }
+            Path path = Paths.get(isGlob(input) ? globBase(input) : input);
+            if (!Files.isDirectory(path)) {
+                sources.add(input);
+                continue;
+            }
+            PathMatcher matcher = isGlob(input)
+                    ? FileSystems.getDefault().getPathMatcher("glob:" + input)
+                    : FileSystems.getDefault().getPathMatcher("glob:**.json");
+            try (Stream<Path> files = Files.walk(path)) {
+                sources.addAll(files.filter(Files::isRegularFile)
+                        .filter(matcher::matches)
+                        .map(Path::toString)
+                        .sorted()
+                        .collect(Collectors.toList()));
+            }
+        }
+        return new ArrayList<>(sources);
+    }
+
+    private static boolean isUrl(String input) {
+        return input.startsWith("http://") || input.startsWith("https://");
+    }
+
+    private static boolean isGlob(String input) {
+        return input.indexOf('*') >= 0 || input.indexOf('?') >= 0 || input.indexOf('{') >= 0 || input.indexOf('[') >= 0;
+    }
+
+    /**
+     * glob 中第一个通配符之前的目录
+     */
+    private static String globBase(String glob) {
+        int wildcard = 0;
+        while (wildcard < glob.length() && "*?{[".indexOf(glob.charAt(wildcard)) < 0) {
+            wildcard++;
+        }
+        int slash = glob.lastIndexOf('/', wildcard);
+        return slash < 0 ? "." : slash == 0 ? "/" : glob.substring(0, slash);
+    }
+
+    private static String baseName(String source) {
+        String name = source;
+        if (isUrl(source)) {
+            name = source.replaceFirst("^https?://", "");
+        } else {
+            Path fileName = Paths.get(source).getFileName();
+            name = fileName == null ? source : fileName.toString();
+            if (name.toLowerCase(Locale.ROOT).endsWith(".json")) {
+                name = name.substring(0, name.length() - ".json".length());
+            }
+        }
+        return name.replaceAll("[^\\w.\\-]+", "_");
+    }
+
+    private static synchronized String uniqueName(Set<String> names, String name) {
+        String unique = name;
+        for (int i = 2; !names.add(unique); i++) {
+            unique = name + "-" + i;
+        }
+        return unique;
+    }
+}
@@ -0,0 +1,39 @@
+package org.word.config;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * 记录当前线程最近创建的请求，读取响应时可以直接断开连接
+ * <p>
+ * 关闭响应时默认会先读完剩余的内容以便复用连接，文档超过限制时这正是要避免的；
+ * 断开后连接不再放回连接池。请求的创建、执行和读取响应都在调用 RestTemplate 的线程中进行。
+ *
+ * @author XiuYin.Cui
+ */
+public class AbortableRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private static final ThreadLocal<HttpUriRequest> CURRENT = new ThreadLocal<>();
+
+    @Override
+    protected void postProcessHttpRequest(HttpUriRequest request) {
+        CURRENT.set(request);
+    }
+
+    /**
+     * 断开当前线程正在读取的响应的连接，没有时不做任何事
+     */
+    public static void abortCurrent() {
+        HttpUriRequest request = CURRENT.get();
+        if (request != null) {
+            request.abort();
+        }
+    }
+
+    /**
+     * 读取结束后清除，不让线程一直引用请求
+     */
+    public static void clearCurrent() {
+        CURRENT.remove();
+    }
+}
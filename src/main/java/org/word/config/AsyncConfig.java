@@ -0,0 +1,37 @@
+package org.word.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 异步请求在转换线程池中写出响应，超时后返回 503；请求结束时归还没有关闭的内存预留
+ *
+ * @author XiuYin.Cui
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    @Autowired
+    @Qualifier("conversionExecutor")
+    private AsyncTaskExecutor conversionExecutor;
+
+    @Value("${swagger.async.timeout:120000}")
+    private long timeout;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(conversionExecutor);
+        configurer.setDefaultTimeout(timeout);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new BudgetReleaseInterceptor());
+    }
+}
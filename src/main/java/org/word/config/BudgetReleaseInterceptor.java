@@ -0,0 +1,39 @@
+package org.word.config;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import org.word.utils.MemoryBudget;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 请求结束时关闭请求中的内存预留。正常情况下渲染结束时已经关闭，
+ * 这里处理转换失败、异步超时或客户端断开后没有渲染的请求，避免预算泄漏
+ *
+ * @author XiuYin.Cui
+ */
+public class BudgetReleaseInterceptor extends HandlerInterceptorAdapter {
+
+    private static final String ATTRIBUTE = BudgetReleaseInterceptor.class.getName() + ".reservation";
+
+    /**
+     * 在处理请求的线程中调用，把预留登记到当前请求上
+     */
+    public static MemoryBudget.Reservation hold(MemoryBudget.Reservation reservation) {
+        RequestContextHolder.currentRequestAttributes().setAttribute(ATTRIBUTE, reservation, RequestAttributes.SCOPE_REQUEST);
+        return reservation;
+    }
+
+    /**
+     * 异步请求在最后一次分派结束后才回调
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object reservation = request.getAttribute(ATTRIBUTE);
+        if (reservation instanceof MemoryBudget.Reservation) {
+            ((MemoryBudget.Reservation) reservation).close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.word.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.word.cache.LruCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 限制对同一主机同时进行的请求数，许可在响应关闭（读完响应体）时释放。
+ * 地址由用户传入，只保留最近使用的 {@link #MAX_HOSTS} 个主机的许可；
+ * 被淘汰的主机上进行中的请求仍在原来的许可上释放，再次访问时重新计数
+ *
+ * @author XiuYin.Cui
+ */
+public class HostConcurrencyInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final int MAX_HOSTS = 1024;
+
+    private final int permits;
+
+    private final long timeoutMillis;
+
+    private final LruCache<String, Semaphore> hosts = new LruCache<>(MAX_HOSTS, 0, TimeUnit.MILLISECONDS);
+
+    public HostConcurrencyInterceptor(int permits, long timeoutMillis) {
+        this.permits = permits;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        URI uri = request.getURI();
+        Semaphore semaphore = semaphore(uri.getHost() + ":" + uri.getPort());
+        try {
+            if (!semaphore.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IOException("too many concurrent requests to " + uri.getHost());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for " + uri.getHost());
+        }
+        try {
+            return new ReleasingResponse(execution.execute(request, body), semaphore);
+        } catch (IOException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    private Semaphore semaphore(String host) {
+        synchronized (hosts) {
+            Semaphore semaphore = hosts.get(host);
+            if (semaphore == null) {
+                semaphore = new Semaphore(permits, true);
+                hosts.put(host, semaphore);
+            }
+            return semaphore;
+        }
+    }
+
+    private static class ReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+
+        private final Semaphore semaphore;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingResponse(ClientHttpResponse delegate, Semaphore semaphore) {
+            this.delegate = delegate;
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    semaphore.release();
+                }
+            }
+        }
+    }
+}
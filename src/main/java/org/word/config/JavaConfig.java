@@ -1,14 +1,26 @@
 package org.word.config;
 
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.client.RestTemplate;
+import org.word.utils.MemoryBudget;
 
 import javax.net.ssl.SSLContext;
 import java.nio.charset.StandardCharsets;
@@ -16,32 +28,115 @@ import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by XiuYin.Cui on 2018/6/21.
  */
 @Configuration
+@EnableConfigurationProperties({SpecFetchProperties.class, SpecLimitProperties.class, PrewarmProperties.class})
 public class JavaConfig {
 
+    /**
+     * 获取 swagger json 专用的客户端：按主机分配的连接池、长连接复用、gzip 流式解压、
+     * 按主机限制并发，连接、读取、获取连接分别超时
+     */
     @Bean
-    public RestTemplate restTemplate() throws KeyStoreException, NoSuchAlgorithmException, KeyManagementException {
+    public RestTemplate restTemplate(SpecFetchProperties properties) throws KeyStoreException, NoSuchAlgorithmException, KeyManagementException {
         TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
         SSLContext sslContext = org.apache.http.ssl.SSLContexts.custom()
                 .loadTrustMaterial(null, acceptingTrustStrategy)
                 .build();
         SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext);
-        CloseableHttpClient httpClient = HttpClients.custom()
-                .setSSLSocketFactory(csf)
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", csf)
                 .build();
-        HttpComponentsClientHttpRequestFactory requestFactory =
-                new HttpComponentsClientHttpRequestFactory();
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity(2000);
+
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? Math.min(keepAlive, properties.getKeepAlive()) : properties.getKeepAlive();
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getMaxIdle(), TimeUnit.MILLISECONDS);
+        if (!properties.isCompression()) {
+            builder.disableContentCompression();
+        }
+        CloseableHttpClient httpClient = builder.build();
+        HttpComponentsClientHttpRequestFactory requestFactory = new AbortableRequestFactory();
         requestFactory.setHttpClient(httpClient);
+        requestFactory.setConnectTimeout(properties.getConnectTimeout());
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+        requestFactory.setConnectionRequestTimeout(properties.getPoolAcquireTimeout());
 
-        //60s
-        requestFactory.setConnectTimeout(60 * 1000);
-        requestFactory.setReadTimeout(60 * 1000);
         RestTemplate restTemplate = new RestTemplate(requestFactory);
         restTemplate.getMessageConverters().set(1, new StringHttpMessageConverter(StandardCharsets.UTF_8));
+        restTemplate.getInterceptors().add(new HostConcurrencyInterceptor(properties.getMaxConcurrentPerHost(), properties.getConcurrencyTimeout()));
         return restTemplate;
     }
+
+    /**
+     * 批量转换的工作线程池，所有批量请求共享，限制同时进行的转换数
+     */
+    @Bean
+    public ThreadPoolTaskExecutor batchExecutor(@Value("${swagger.batch.pool-size:8}") int poolSize,
+                                                @Value("${swagger.batch.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("batch-");
+        return executor;
+    }
+
+    /**
+     * 异步模式下获取、转换和渲染的线程池，等待上游的请求只占用这里有限的线程，不占用 tomcat 线程；
+     * 队列也满时拒绝请求
+     */
+    @Bean
+    public ThreadPoolTaskExecutor conversionExecutor(@Value("${swagger.async.pool-size:32}") int poolSize,
+                                                     @Value("${swagger.async.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("convert-");
+        return executor;
+    }
+
+    /**
+     * 后台预热的调度线程池，线程数即同时刷新的地址数
+     */
+    @Bean
+    public ThreadPoolTaskScheduler prewarmScheduler(PrewarmProperties properties) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(1, properties.getParallelism()));
+        scheduler.setThreadNamePrefix("prewarm-");
+        return scheduler;
+    }
+
+    /**
+     * 所有转换共享的内存预算
+     */
+    @Bean
+    public MemoryBudget memoryBudget(SpecLimitProperties properties) {
+        long budget = properties.getMemoryBudget() > 0 ? properties.getMemoryBudget() : Runtime.getRuntime().maxMemory() / 2;
+        return new MemoryBudget(budget, properties.getMemoryFactor());
+    }
+
+    /**
+     * 封装接口用的 fork/join 线程池，0 表示与 cpu 核数相同
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool operationPool(@Value("${swagger.parallel.threads:0}") int threads) {
+        return new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
 }
@@ -0,0 +1,43 @@
+package org.word.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 后台预热：定时获取、转换并渲染常用的 swagger 地址，用户请求直接命中缓存
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+@ConfigurationProperties(prefix = "swagger.prewarm")
+public class PrewarmProperties {
+
+    /**
+     * 需要预热的地址，为空时不启用
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * 两次刷新的间隔，毫秒
+     */
+    private long interval = 5 * 60 * 1000;
+
+    /**
+     * 每次间隔随机增减的最大毫秒数，避免所有地址同时刷新；启动后第一次刷新也在这个范围内随机延迟
+     */
+    private long jitter = 30 * 1000;
+
+    /**
+     * 同时刷新的地址数
+     */
+    private int parallelism = 2;
+
+    /**
+     * 预先渲染的格式：html（/toWord 页面）、doc、docx
+     */
+    private List<String> formats = new ArrayList<>(Arrays.asList("html", "doc", "docx"));
+}
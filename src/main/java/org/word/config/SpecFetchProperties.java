@@ -0,0 +1,64 @@
+package org.word.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 获取 swagger json 的 http 客户端配置
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+@ConfigurationProperties(prefix = "swagger.fetch")
+public class SpecFetchProperties {
+
+    /**
+     * 连接池最大连接数
+     */
+    private int maxTotal = 200;
+
+    /**
+     * 每个主机最大连接数
+     */
+    private int maxPerRoute = 20;
+
+    /**
+     * 每个主机同时进行的请求数，超过时等待 concurrencyTimeout
+     */
+    private int maxConcurrentPerHost = 8;
+
+    /**
+     * 等待主机并发许可的超时，毫秒
+     */
+    private int concurrencyTimeout = 10 * 1000;
+
+    /**
+     * 建立连接超时，毫秒
+     */
+    private int connectTimeout = 5 * 1000;
+
+    /**
+     * 读取超时（两次收到数据的最大间隔），毫秒
+     */
+    private int readTimeout = 60 * 1000;
+
+    /**
+     * 从连接池获取连接的超时，毫秒
+     */
+    private int poolAcquireTimeout = 5 * 1000;
+
+    /**
+     * 服务端未声明 Keep-Alive 时连接的保持时间，毫秒
+     */
+    private long keepAlive = 30 * 1000;
+
+    /**
+     * 空闲连接超过该时间后被清理，毫秒
+     */
+    private long maxIdle = 60 * 1000;
+
+    /**
+     * 是否发送 Accept-Encoding: gzip,deflate 并流式解压
+     */
+    private boolean compression = true;
+}
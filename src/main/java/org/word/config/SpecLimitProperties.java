@@ -0,0 +1,49 @@
+package org.word.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 读取文档时的限制和所有转换共享的内存预算，数量和大小为 0 时不限制
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+@ConfigurationProperties(prefix = "swagger.limit")
+public class SpecLimitProperties {
+
+    /**
+     * 文档最大字节数（解压后），Content-Length 超过时不读取直接拒绝
+     */
+    private long maxBytes = 100L * 1024 * 1024;
+
+    /**
+     * 对象和数组的最大嵌套层数
+     */
+    private int maxDepth = 100;
+
+    /**
+     * paths 中的最大接口数，每个路径下的每种请求方式计为一个
+     */
+    private int maxOperations = 50000;
+
+    /**
+     * definitions 中的最大模型数
+     */
+    private int maxDefinitions = 50000;
+
+    /**
+     * 从发出请求到读完响应的最长时间，毫秒
+     */
+    private long fetchTimeout = 90 * 1000;
+
+    /**
+     * 所有转换共享的内存预算，字节，0 表示最大堆内存的一半
+     */
+    private long memoryBudget = 0;
+
+    /**
+     * 每读取一个字节估算占用的内存字节数
+     */
+    private int memoryFactor = 10;
+}
@@ -0,0 +1,127 @@
+package org.word.controller;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.word.cache.DiskStore;
+import org.word.cache.RenderCache;
+import org.word.cache.SectionCache;
+import org.word.cache.SpecCache;
+import org.word.model.PrewarmStatus;
+import org.word.service.PrewarmService;
+import org.word.source.SpecSourceResolver;
+import org.word.utils.MemoryBudget;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存管理和后台预热
+ *
+ * @author XiuYin.Cui
+ */
+@RestController
+@RequestMapping("/admin/cache")
+public class AdminController {
+
+    @Autowired
+    private SpecCache specCache;
+
+    @Autowired
+    private RenderCache renderCache;
+
+    @Autowired
+    private SectionCache sectionCache;
+
+    @Autowired
+    private DiskStore diskStore;
+
+    @Autowired
+    private MemoryBudget memoryBudget;
+
+    @Autowired
+    private PrewarmService prewarmService;
+
+    @Autowired
+    private SpecSourceResolver sourceResolver;
+
+    /**
+     * 查看缓存命中情况
+     *
+     * @return
+     */
+    @RequestMapping(value = "/stats", method = RequestMethod.GET)
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("spec", specCache.stats());
+        result.put("specNotModified", specCache.getNotModified());
+        result.put("render", renderCache.stats());
+        result.put("section", sectionCache.stats());
+        result.put("disk", diskStore.stats());
+        // 转换内存预算：总量和剩余（KB）、等待的转换数
+        Map<String, Object> memory = new LinkedHashMap<>();
+        memory.put("totalKB", memoryBudget.getTotal());
+        memory.put("availableKB", memoryBudget.getAvailable());
+        result.put("memory", memory);
+        return result;
+    }
+
+    /**
+     * 使缓存失效，渲染结果按内容摘要缓存，只在清空全部时一并清空
+     *
+     * @param url 需要失效的资源地址，不传则清空全部
+     * @return
+     */
+    @RequestMapping(value = "/invalidate", method = {RequestMethod.POST, RequestMethod.DELETE})
+    public Map<String, Object> invalidate(@RequestParam(value = "url", required = false) String url) {
+        if (StringUtils.isBlank(url)) {
+            specCache.invalidateAll();
+            renderCache.invalidateAll();
+            sectionCache.invalidateAll();
+            diskStore.invalidateAll();
+        } else {
+            String location = location(url);
+            specCache.invalidate(location);
+            diskStore.invalidate(DiskStore.specKey(location));
+        }
+        return stats();
+    }
+
+    /**
+     * 与读取时一样由来源得到缓存的 key，写法不同的同一地址也能失效；文件已不存在等无法解析时按 http 地址规范化
+     */
+    private String location(String url) {
+        try {
+            return sourceResolver.resolve(url.trim()).getLocation();
+        } catch (IllegalArgumentException e) {
+            return SpecSourceResolver.normalize(url);
+        }
+    }
+
+    /**
+     * 预热地址的刷新情况：距离最近一次成功的时间、耗时和失败原因
+     */
+    @RequestMapping(value = "/prewarm", method = RequestMethod.GET)
+    public List<PrewarmStatus> prewarm() {
+        return prewarmService.status();
+    }
+
+    /**
+     * 在后台立即刷新一个预热地址
+     *
+     * @param url 配置的预热地址，不是时返回 404
+     */
+    @RequestMapping(value = "/prewarm", method = RequestMethod.POST)
+    public ResponseEntity<List<PrewarmStatus>> refresh(@RequestParam("url") String url) {
+        if (!prewarmService.refreshNow(url)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(prewarmService.status(), HttpStatus.ACCEPTED);
+    }
+}
@@ -0,0 +1,132 @@
+package org.word.controller;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.word.cache.SpecHistory;
+import org.word.cache.SpecVersion;
+import org.word.model.SpecChanges;
+import org.word.model.SpecIndex;
+import org.word.parser.OperationFilter;
+import org.word.parser.SpecLimitException;
+import org.word.service.WordService;
+import org.word.source.SpecSourceResolver;
+import org.word.utils.MemoryBudget;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 文档版本查询，版本号为文档内容摘要，每次转换时记录；以及文档目录
+ *
+ * @author XiuYin.Cui
+ */
+@RestController
+public class SpecController {
+
+    @Autowired
+    private SpecHistory specHistory;
+
+    @Autowired
+    private WordService wordService;
+
+    @Autowired
+    private MemoryBudget memoryBudget;
+
+    @Value("${swagger.url}")
+    private String swaggerUrl;
+
+    /**
+     * 已记录的版本，从旧到新
+     *
+     * @param url 资源地址
+     * @return
+     */
+    @RequestMapping(value = "/versions", method = RequestMethod.GET)
+    public List<SpecVersion> versions(@RequestParam(value = "url", required = false) String url) {
+        return specHistory.versions(location(url));
+    }
+
+    /**
+     * 某个版本之后新增、删除和修改的接口
+     *
+     * @param url   资源地址
+     * @param since 起始版本，可以只传摘要的前几位，不传则与上一个版本比较
+     * @return
+     */
+    @RequestMapping(value = "/changes", method = RequestMethod.GET)
+    public ResponseEntity<SpecChanges> changes(@RequestParam(value = "url", required = false) String url,
+                                               @RequestParam(value = "since", required = false) String since) {
+        SpecChanges changes = specHistory.changes(location(url), StringUtils.trimToNull(since));
+        if (changes == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok(changes);
+    }
+
+    /**
+     * 文档目录：各大标题的接口数，只读取 tags，不封装接口，可以先查看再用 /downloadWord?tag= 只转换需要的部分
+     *
+     * @param url     资源地址
+     * @param tags    只统计这些大标题，可重复传
+     * @param path    只统计这个前缀下的路径
+     * @param methods 只统计这些请求方式，可重复传
+     * @return
+     */
+    @RequestMapping(value = "/specIndex", method = RequestMethod.GET)
+    public ResponseEntity<SpecIndex> index(@RequestParam(value = "url", required = false) String url,
+                                           @RequestParam(value = "tag", required = false) List<String> tags,
+                                           @RequestParam(value = "path", required = false) String path,
+                                           @RequestParam(value = "method", required = false) List<String> methods) {
+        String location = StringUtils.defaultIfBlank(url, swaggerUrl);
+        SpecIndex index;
+        try (MemoryBudget.Reservation reservation = memoryBudget.open()) {
+            index = wordService.index(location, OperationFilter.of(tags, path, methods), reservation);
+        }
+        if (index == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_GATEWAY);
+        }
+        return ResponseEntity.ok(index);
+    }
+
+    /**
+     * 不支持的地址或不允许读取的文件
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public void badLocation(IllegalArgumentException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    }
+
+    /**
+     * 文档超过限制
+     */
+    @ExceptionHandler(SpecLimitException.class)
+    public void tooLarge(SpecLimitException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), e.getMessage());
+    }
+
+    /**
+     * 内存预算不足
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public void busy(RejectedExecutionException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+    }
+
+    /**
+     * 与转换时一样规范化 http 地址，历史版本以规范化后的地址记录
+     */
+    private String location(String url) {
+        String location = StringUtils.defaultIfBlank(url, swaggerUrl);
+        return StringUtils.startsWithIgnoreCase(location, "http") ? SpecSourceResolver.normalize(location) : location;
+    }
+}
@@ -3,19 +3,35 @@ package org.word.controller;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.word.config.BudgetReleaseInterceptor;
+import org.word.parser.OperationFilter;
+import org.word.parser.SpecLimitException;
+import org.word.service.BatchService;
+import org.word.service.RenderService;
 import org.word.service.WordService;
+import org.word.source.SpecSource;
+import org.word.source.UploadSpecSource;
+import org.word.utils.MemoryBudget;
 
 import javax.servlet.http.HttpServletResponse;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Created by XiuYin.Cui on 2018/1/11.
@@ -23,57 +39,194 @@ import java.util.Map;
 @Controller
 public class WordController {
 
+    private static final String DOCX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
     @Autowired
     private WordService tableService;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private RenderService renderService;
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private MemoryBudget memoryBudget;
 
     @Value("${swagger.url}")
     private String swaggerUrl;
 
-    @Value("${server.port}")
-    private Integer port;
+    @Value("${swagger.batch.max-urls:100}")
+    private int batchMaxUrls;
+
+    /**
+     * 是否在转换线程池中异步获取和转换
+     */
+    @Value("${swagger.async.enabled:true}")
+    private boolean async;
 
     /**
      * 将 swagger 文档转换成 html 文档，可通过在网页上右键另存为 xxx.doc 的方式转换为 word 文档
      *
-     * @param model
-     * @param url   需要转换成 word 文档的资源地址
-     * @return
+     * @param url      需要转换成 word 文档的资源地址
+     * @param download
+     * @param tags     只转换这些大标题下的接口，可重复传
+     * @param path     只转换这个前缀下的路径
+     * @param methods  只转换这些请求方式，可重复传
      */
     @Deprecated
     @RequestMapping("/toWord")
-    public String getWord(Model model, @RequestParam(value = "url", required = false) String url,
-                          @RequestParam(value = "download", required = false, defaultValue = "1") Integer download) {
-        url = StringUtils.defaultIfBlank(url, swaggerUrl);
-        Map<String, Object> result = tableService.tableList(url);
-        model.addAttribute("url", url);
-        model.addAttribute("download", download);
-        model.addAllAttributes(result);
-        return "word";
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> getWord(@RequestParam(value = "url", required = false) String url,
+                                                                            @RequestParam(value = "download", required = false, defaultValue = "1") Integer download,
+                                                                            @RequestParam(value = "tag", required = false) List<String> tags,
+                                                                            @RequestParam(value = "path", required = false) String path,
+                                                                            @RequestParam(value = "method", required = false) List<String> methods) {
+        String location = StringUtils.defaultIfBlank(url, swaggerUrl);
+        MemoryBudget.Reservation reservation = reserve();
+        return tableList(location, OperationFilter.of(tags, path, methods), reservation).thenApply(result -> ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/html;charset=utf-8"))
+                .body(out -> {
+                    try {
+                        renderService.render(result, location, download, out);
+                    } finally {
+                        reservation.close();
+                    }
+                }));
     }
 
     /**
-     * 将 swagger 文档一键下载为 doc 文档
+     * 将 swagger 文档一键下载为 word 文档，直接在进程内渲染到响应流
      *
-     * @param url      需要转换成 word 文档的资源地址
-     * @param response
+     * @param url     需要转换成 word 文档的资源地址
+     * @param format  doc（html 格式，默认）或 docx
+     * @param tags    只转换这些大标题下的接口，可重复传
+     * @param path    只转换这个前缀下的路径
+     * @param methods 只转换这些请求方式，可重复传
      */
     @RequestMapping("/downloadWord")
-    public void word(@RequestParam(required = false) String url, HttpServletResponse response) {
-        ResponseEntity<String> forEntity = restTemplate.getForEntity("http://localhost:" + port + "/toWord?download=0&url=" + StringUtils.defaultIfBlank(url, swaggerUrl), String.class);
-        response.setContentType("application/octet-stream;charset=utf-8");
-        response.setCharacterEncoding("utf-8");
-        try (BufferedOutputStream bos = new BufferedOutputStream(response.getOutputStream())) {
-            response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode("toWord.doc", "utf-8"));
-            byte[] bytes = forEntity.getBody().getBytes();
-            bos.write(bytes, 0, bytes.length);
-            bos.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> word(@RequestParam(required = false) String url,
+                                                                         @RequestParam(value = "format", required = false, defaultValue = RenderService.FORMAT_DOC) String format,
+                                                                         @RequestParam(value = "tag", required = false) List<String> tags,
+                                                                         @RequestParam(value = "path", required = false) String path,
+                                                                         @RequestParam(value = "method", required = false) List<String> methods) {
+        String location = StringUtils.defaultIfBlank(url, swaggerUrl);
+        MemoryBudget.Reservation reservation = reserve();
+        return tableList(location, OperationFilter.of(tags, path, methods), reservation)
+                .thenApply(result -> download(result, location, format, reservation));
+    }
+
+    /**
+     * 上传 swagger json 文件直接下载为 word 文档，在上传流上解析，不需要先发布到 http 服务
+     *
+     * @param file   swagger json 文件
+     * @param format doc（html 格式，默认）或 docx
+     */
+    @PostMapping("/uploadWord")
+    public ResponseEntity<StreamingResponseBody> upload(@RequestParam("file") MultipartFile file,
+                                                        @RequestParam(value = "format", required = false, defaultValue = RenderService.FORMAT_DOC) String format) {
+        SpecSource source = new UploadSpecSource(file);
+        MemoryBudget.Reservation reservation = reserve();
+        Map<String, Object> result = tableService.tableList(source, reservation);
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("failed to parse swagger json");
         }
+        return download(result, source.getLocation(), format, reservation);
     }
 
+    /**
+     * 批量下载，多个 swagger 文档并发转换后打包为 zip，单个失败不影响其他文档
+     *
+     * @param urls     资源地址，可重复传 url 参数
+     * @param body     也可以用 json 数组放在请求体中
+     * @param format   doc（默认）或 docx
+     * @param response
+     */
+    @RequestMapping("/downloadWords")
+    public void words(@RequestParam(value = "url", required = false) List<String> urls,
+                      @RequestBody(required = false) List<String> body,
+                      @RequestParam(value = "format", required = false, defaultValue = RenderService.FORMAT_DOC) String format,
+                      HttpServletResponse response) throws IOException {
+        List<String> all = new ArrayList<>();
+        if (urls != null) {
+            all.addAll(urls);
+        }
+        if (body != null) {
+            all.addAll(body);
+        }
+        all.removeIf(StringUtils::isBlank);
+        if (all.isEmpty() || all.size() > batchMaxUrls) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "url count must be between 1 and " + batchMaxUrls);
+            return;
+        }
+        response.setContentType("application/zip");
+        response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode("toWord.zip", "utf-8"));
+        batchService.zip(all, format, response.getOutputStream());
+    }
 
+    /**
+     * 不支持的地址或不允许读取的文件
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public void badLocation(IllegalArgumentException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    }
+
+    /**
+     * 文档超过大小、嵌套层数、接口数或获取时间的限制
+     */
+    @ExceptionHandler(SpecLimitException.class)
+    public void tooLarge(SpecLimitException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), e.getMessage());
+    }
+
+    /**
+     * 转换线程池和队列都已满，或内存预算不足
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public void busy(HttpServletResponse response) throws IOException {
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "too many conversions in progress");
+    }
+
+    /**
+     * 空的内存预留，实际读取文档时才追加，渲染结束时关闭；没有渲染就结束的请求由 {@link BudgetReleaseInterceptor} 关闭
+     */
+    private MemoryBudget.Reservation reserve() {
+        return BudgetReleaseInterceptor.hold(memoryBudget.open());
+    }
+
+    /**
+     * 异步模式下获取和转换在转换线程池中进行，不占用请求线程
+     */
+    private CompletableFuture<Map<String, Object>> tableList(String url, OperationFilter filter, MemoryBudget.Reservation reservation) {
+        if (async) {
+            return tableService.tableListAsync(url, filter, reservation);
+        }
+        return CompletableFuture.completedFuture(tableService.tableList(url, filter, reservation));
+    }
+
+    private ResponseEntity<StreamingResponseBody> download(Map<String, Object> result, String url, String format,
+                                                           MemoryBudget.Reservation reservation) {
+        if (RenderService.FORMAT_DOCX.equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(DOCX_CONTENT_TYPE))
+                    .header("Content-disposition", "attachment;filename=toWord.docx")
+                    .body(out -> {
+                        try {
+                            renderService.renderDocx(result, url, out);
+                        } finally {
+                            reservation.close();
+                        }
+                    });
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/octet-stream;charset=utf-8"))
+                .header("Content-disposition", "attachment;filename=toWord.doc")
+                .body(out -> {
+                    try {
+                        renderService.render(result, url, 0, out);
+                    } finally {
+                        reservation.close();
+                    }
+                });
+    }
 }
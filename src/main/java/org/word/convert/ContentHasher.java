@@ -0,0 +1,193 @@
+package org.word.convert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.word.model.ModelAttr;
+import org.word.parser.DefinitionIndex;
+import org.word.parser.SwaggerOperation;
+import org.word.parser.SwaggerParameter;
+import org.word.parser.SwaggerResponse;
+import org.word.parser.SwaggerSchema;
+import org.word.utils.HashUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 计算接口和大标题的内容摘要，内容不变时摘要不变，用于增量渲染和版本比较
+ * <p>
+ * 接口的摘要包括接口本身和它引用的模型，以及经由属性引用、包装类型可以到达的全部模型，
+ * 与生成的表格和逐层展开的示例一致。同一次转换中模型的摘要只计算一次，不是线程安全的。
+ *
+ * @author XiuYin.Cui
+ */
+public class ContentHasher {
+
+    /**
+     * 摘要取前 16 位十六进制
+     */
+    private static final int HASH_LENGTH = 16;
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final DefinitionIndex index;
+
+    private final Map<DefinitionIndex.Node, byte[]> definitionHashes = new HashMap<>();
+
+    private final Map<DefinitionIndex.Node, byte[]> closureHashes = new HashMap<>();
+
+    private final MessageDigest digest = HashUtils.sha256();
+
+    public ContentHasher(DefinitionIndex index) {
+        this.index = index;
+    }
+
+    public String operationHash(SwaggerOperation operation) {
+        MessageDigest md = HashUtils.sha256();
+        update(md, operation.getTitle());
+        update(md, operation.getSummary());
+        update(md, operation.getUrl());
+        update(md, operation.getRequestType());
+        updateJson(md, operation.getConsumes());
+        updateJson(md, operation.getProduces());
+        updateJson(md, operation.getParameters());
+        updateJson(md, operation.getResponses());
+        Set<String> refs = new TreeSet<>();
+        if (operation.getParameters() != null) {
+            for (SwaggerParameter parameter : operation.getParameters()) {
+                collectRefs(parameter.getSchema(), refs);
+            }
+        }
+        if (operation.getResponses() != null) {
+            for (SwaggerResponse response : operation.getResponses().values()) {
+                collectRefs(response.getSchema(), refs);
+            }
+        }
+        for (String ref : refs) {
+            DefinitionIndex.Node node = index.get(ref);
+            if (node != null) {
+                md.update(closureHash(node));
+            }
+        }
+        return hex(md);
+    }
+
+    /**
+     * 大标题的摘要，由标题和组内接口摘要按顺序组成
+     */
+    public String sectionHash(String title, List<String> operationHashes) {
+        MessageDigest md = HashUtils.sha256();
+        update(md, title);
+        for (String hash : operationHashes) {
+            update(md, hash);
+        }
+        return hex(md);
+    }
+
+    /**
+     * 模型和它可以到达的全部模型，按名称排序后的摘要
+     */
+    private byte[] closureHash(DefinitionIndex.Node node) {
+        byte[] hash = closureHashes.get(node);
+        if (hash != null) {
+            return hash;
+        }
+        Set<DefinitionIndex.Node> reachable = new TreeSet<>(Comparator.comparing(DefinitionIndex.Node::getName));
+        Deque<DefinitionIndex.Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            DefinitionIndex.Node current = stack.pop();
+            if (!reachable.add(current)) {
+                continue;
+            }
+            for (DefinitionIndex.Node reference : current.getReferences()) {
+                if (reference != null) {
+                    stack.push(reference);
+                }
+            }
+            if (current.getPayload() != null) {
+                stack.push(current.getPayload());
+            }
+        }
+        MessageDigest md = HashUtils.sha256();
+        for (DefinitionIndex.Node item : reachable) {
+            md.update(definitionHash(item));
+        }
+        hash = md.digest();
+        closureHashes.put(node, hash);
+        return hash;
+    }
+
+    private byte[] definitionHash(DefinitionIndex.Node node) {
+        return definitionHashes.computeIfAbsent(node, key -> {
+            digest.reset();
+            ModelAttr model = key.getModel();
+            update(digest, key.getName());
+            update(digest, model.getClassName());
+            update(digest, model.getDescription());
+            for (ModelAttr property : model.getProperties()) {
+                update(digest, property.getName());
+                update(digest, property.getType());
+                update(digest, property.getDescription());
+                update(digest, property.getRef());
+            }
+            return digest.digest();
+        });
+    }
+
+    private static void collectRefs(SwaggerSchema schema, Set<String> refs) {
+        if (schema == null) {
+            return;
+        }
+        if (schema.getRef() != null) {
+            refs.add(schema.getRef());
+        }
+        if (schema.getItemsRef() != null) {
+            refs.add(schema.getItemsRef());
+        }
+    }
+
+    private void updateJson(MessageDigest md, Object value) {
+        try {
+            OBJECT_MAPPER.writeValue(new DigestOutputStream(DISCARD, md), value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        md.update((byte) 0);
+    }
+
+    /**
+     * 每个字段后加分隔符，避免 "ab"+"c" 与 "a"+"bc" 相同
+     */
+    private static void update(MessageDigest md, String value) {
+        if (value != null) {
+            md.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        md.update((byte) 0);
+    }
+
+    private static String hex(MessageDigest md) {
+        return HashUtils.toHex(md.digest()).substring(0, HASH_LENGTH);
+    }
+}
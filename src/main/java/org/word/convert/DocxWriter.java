@@ -0,0 +1,395 @@
+package org.word.convert;
+
+import org.word.model.ModelAttr;
+import org.word.model.Request;
+import org.word.model.Table;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 直接生成 Word 2007+ 的 docx 文档
+ * <p>
+ * 固定的部件（样式、关系）直接写入，document.xml 用 StAX 逐个接口写入 zip，
+ * 内存只与单个接口的 Table 相关。每组接口一个一级标题，每个接口一个二级标题和一张表格，
+ * 文档开头是目录域，打开文档时由 Word 更新。
+ *
+ * @author XiuYin.Cui
+ */
+@SuppressWarnings("unchecked")
+public class DocxWriter {
+
+    /**
+     * 输出格式变化时修改，用于区分渲染缓存
+     */
+    public static final String VERSION = "1";
+
+    private static final String W = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    private static final String XML = "http://www.w3.org/XML/1998/namespace";
+
+    /**
+     * A4 纸，左右边距 2cm 后的可用宽度，单位 1/20 磅
+     */
+    private static final int[] GRID = {2410, 1807, 1807, 1807, 1807};
+
+    private static final String HEADER_FILL = "5C819B";
+
+    private static final String CONTENT_TYPES = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+            + "<Override PartName=\"/word/document.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/>"
+            + "<Override PartName=\"/word/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.styles+xml\"/>"
+            + "<Override PartName=\"/word/settings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.settings+xml\"/>"
+            + "</Types>";
+
+    private static final String RELS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"word/document.xml\"/>"
+            + "</Relationships>";
+
+    private static final String DOCUMENT_RELS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"
+            + "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/settings\" Target=\"settings.xml\"/>"
+            + "</Relationships>";
+
+    /**
+     * 打开时提示更新域，目录才会生成
+     */
+    private static final String SETTINGS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<w:settings xmlns:w=\"" + W + "\"><w:updateFields w:val=\"true\"/></w:settings>";
+
+    private static final String STYLES = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<w:styles xmlns:w=\"" + W + "\">"
+            + "<w:docDefaults><w:rPrDefault><w:rPr>"
+            + "<w:rFonts w:ascii=\"Calibri\" w:hAnsi=\"Calibri\" w:eastAsia=\"宋体\" w:cs=\"Calibri\"/>"
+            + "<w:sz w:val=\"21\"/><w:szCs w:val=\"21\"/><w:lang w:val=\"en-US\" w:eastAsia=\"zh-CN\"/>"
+            + "</w:rPr></w:rPrDefault><w:pPrDefault><w:pPr><w:spacing w:after=\"0\" w:line=\"240\" w:lineRule=\"auto\"/></w:pPr></w:pPrDefault></w:docDefaults>"
+            + "<w:style w:type=\"paragraph\" w:default=\"1\" w:styleId=\"Normal\"><w:name w:val=\"Normal\"/><w:qFormat/></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"Title\"><w:name w:val=\"Title\"/><w:basedOn w:val=\"Normal\"/><w:next w:val=\"Normal\"/><w:qFormat/>"
+            + "<w:pPr><w:jc w:val=\"center\"/><w:spacing w:before=\"240\" w:after=\"240\"/></w:pPr><w:rPr><w:sz w:val=\"36\"/><w:szCs w:val=\"36\"/></w:rPr></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"Heading1\"><w:name w:val=\"heading 1\"/><w:basedOn w:val=\"Normal\"/><w:next w:val=\"Normal\"/><w:qFormat/>"
+            + "<w:pPr><w:keepNext/><w:spacing w:before=\"360\" w:after=\"120\"/><w:outlineLvl w:val=\"0\"/></w:pPr><w:rPr><w:b/><w:sz w:val=\"30\"/><w:szCs w:val=\"30\"/></w:rPr></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"Heading2\"><w:name w:val=\"heading 2\"/><w:basedOn w:val=\"Normal\"/><w:next w:val=\"Normal\"/><w:qFormat/>"
+            + "<w:pPr><w:keepNext/><w:spacing w:before=\"240\" w:after=\"120\"/><w:outlineLvl w:val=\"1\"/></w:pPr><w:rPr><w:b/><w:sz w:val=\"24\"/><w:szCs w:val=\"24\"/></w:rPr></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"TOC1\"><w:name w:val=\"toc 1\"/><w:basedOn w:val=\"Normal\"/><w:next w:val=\"Normal\"/></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"TOC2\"><w:name w:val=\"toc 2\"/><w:basedOn w:val=\"Normal\"/><w:next w:val=\"Normal\"/><w:pPr><w:ind w:left=\"420\"/></w:pPr></w:style>"
+            + "<w:style w:type=\"table\" w:styleId=\"TableGrid\"><w:name w:val=\"Table Grid\"/><w:tblPr>"
+            + "<w:tblBorders><w:top w:val=\"single\" w:sz=\"4\" w:color=\"DBE3E4\"/><w:left w:val=\"single\" w:sz=\"4\" w:color=\"DBE3E4\"/>"
+            + "<w:bottom w:val=\"single\" w:sz=\"4\" w:color=\"DBE3E4\"/><w:right w:val=\"single\" w:sz=\"4\" w:color=\"DBE3E4\"/>"
+            + "<w:insideH w:val=\"single\" w:sz=\"4\" w:color=\"DBE3E4\"/><w:insideV w:val=\"single\" w:sz=\"4\" w:color=\"DBE3E4\"/></w:tblBorders>"
+            + "<w:tblCellMar><w:top w:w=\"60\" w:type=\"dxa\"/><w:left w:w=\"100\" w:type=\"dxa\"/><w:bottom w:w=\"60\" w:type=\"dxa\"/><w:right w:w=\"100\" w:type=\"dxa\"/></w:tblCellMar>"
+            + "</w:tblPr></w:style>"
+            + "</w:styles>";
+
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    /**
+     * 写出完整的 docx，结束时写完 zip 目录但不关闭输出流
+     *
+     * @param result tableList 的结果
+     * @param out    输出流
+     */
+    public void write(Map<String, Object> result, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        putEntry(zip, "[Content_Types].xml", CONTENT_TYPES);
+        putEntry(zip, "_rels/.rels", RELS);
+        putEntry(zip, "word/_rels/document.xml.rels", DOCUMENT_RELS);
+        putEntry(zip, "word/styles.xml", STYLES);
+        putEntry(zip, "word/settings.xml", SETTINGS);
+
+        zip.putNextEntry(new ZipEntry("word/document.xml"));
+        Writer writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+        try {
+            XMLStreamWriter xml = outputFactory.createXMLStreamWriter(writer);
+            writeDocument(xml, result);
+            xml.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        writer.flush();
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    private void putEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private void writeDocument(XMLStreamWriter xml, Map<String, Object> result) throws XMLStreamException {
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeStartElement("w", "document", W);
+        xml.writeNamespace("w", W);
+        xml.writeStartElement("w", "body", W);
+
+        Map<String, Object> info = (Map<String, Object>) result.get("info");
+        if (info == null) {
+            info = Collections.emptyMap();
+        }
+        paragraph(xml, "Title", text(info.get("title")) + "（" + text(info.get("version")) + "）");
+        writeToc(xml);
+
+        Map<String, List<Table>> tableMap = (Map<String, List<Table>>) result.get("tableMap");
+        if (tableMap != null) {
+            for (Map.Entry<String, List<Table>> section : tableMap.entrySet()) {
+                paragraph(xml, "Heading1", section.getKey());
+                int count = 0;
+                for (Table table : section.getValue()) {
+                    paragraph(xml, "Heading2", ++count + "）" + text(table.getTag()));
+                    writeTable(xml, table);
+                }
+            }
+        }
+
+        // A4 纸，边距 2cm
+        xml.writeStartElement("w", "sectPr", W);
+        xml.writeEmptyElement("w", "pgSz", W);
+        xml.writeAttribute("w", W, "w", "11906");
+        xml.writeAttribute("w", W, "h", "16838");
+        xml.writeEmptyElement("w", "pgMar", W);
+        for (String side : new String[]{"top", "right", "bottom", "left"}) {
+            xml.writeAttribute("w", W, side, "1134");
+        }
+        xml.writeAttribute("w", W, "header", "720");
+        xml.writeAttribute("w", W, "footer", "720");
+        xml.writeAttribute("w", W, "gutter", "0");
+        xml.writeEndElement();
+
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndDocument();
+    }
+
+    /**
+     * 目录域，包含一、二级标题，另起一页开始正文
+     */
+    private void writeToc(XMLStreamWriter xml) throws XMLStreamException {
+        paragraph(xml, null, "目录");
+        xml.writeStartElement("w", "p", W);
+        fieldChar(xml, "begin");
+        xml.writeStartElement("w", "r", W);
+        xml.writeStartElement("w", "instrText", W);
+        xml.writeAttribute("xml", XML, "space", "preserve");
+        xml.writeCharacters(" TOC \\o \"1-2\" \\h \\z \\u ");
+        xml.writeEndElement();
+        xml.writeEndElement();
+        fieldChar(xml, "separate");
+        run(xml, "打开文档时更新域即可生成目录", false, null);
+        fieldChar(xml, "end");
+        xml.writeEndElement();
+
+        xml.writeStartElement("w", "p", W);
+        xml.writeStartElement("w", "r", W);
+        xml.writeEmptyElement("w", "br", W);
+        xml.writeAttribute("w", W, "type", "page");
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private void fieldChar(XMLStreamWriter xml, String type) throws XMLStreamException {
+        xml.writeStartElement("w", "r", W);
+        xml.writeEmptyElement("w", "fldChar", W);
+        xml.writeAttribute("w", W, "fldCharType", type);
+        if ("begin".equals(type)) {
+            xml.writeAttribute("w", W, "dirty", "true");
+        }
+        xml.writeEndElement();
+    }
+
+    /**
+     * 与 word-section.html 中的表格一一对应
+     */
+    private void writeTable(XMLStreamWriter xml, Table table) throws XMLStreamException {
+        xml.writeStartElement("w", "tbl", W);
+        xml.writeStartElement("w", "tblPr", W);
+        xml.writeEmptyElement("w", "tblStyle", W);
+        xml.writeAttribute("w", W, "val", "TableGrid");
+        xml.writeEmptyElement("w", "tblW", W);
+        xml.writeAttribute("w", W, "w", String.valueOf(width(0, GRID.length)));
+        xml.writeAttribute("w", W, "type", "dxa");
+        xml.writeEmptyElement("w", "tblLayout", W);
+        xml.writeAttribute("w", W, "type", "fixed");
+        xml.writeEndElement();
+        xml.writeStartElement("w", "tblGrid", W);
+        for (int width : GRID) {
+            xml.writeEmptyElement("w", "gridCol", W);
+            xml.writeAttribute("w", W, "w", String.valueOf(width));
+        }
+        xml.writeEndElement();
+
+        row(xml, false, new Cell(table.getTag(), 5, true));
+        labelRow(xml, "接口描述", table.getDescription(), false);
+        labelRow(xml, "URL", table.getUrl(), false);
+        labelRow(xml, "请求方式", table.getRequestType(), false);
+        labelRow(xml, "请求类型", table.getRequestForm(), false);
+        labelRow(xml, "返回类型", table.getResponseForm(), false);
+
+        row(xml, true, new Cell("参数名", 1, true), new Cell("数据类型", 1, true),
+                new Cell("是否必填", 1, true), new Cell("说明", 2, true));
+        if (table.getRequestList() != null) {
+            for (Request request : table.getRequestList()) {
+                if (Boolean.TRUE.equals(request.getCssType())) {
+                    row(xml, false, new Cell(request.getName(), 5, false));
+                } else {
+                    row(xml, true, new Cell(request.getName(), 1, false), new Cell(request.getType(), 1, false),
+                            new Cell(Boolean.TRUE.equals(request.getRequire()) ? "Y" : "N", 1, false),
+                            new Cell(request.getRemark(), 2, false));
+                }
+            }
+        }
+
+        row(xml, true, new Cell("返回属性名", 1, true), new Cell("类型", 2, true), new Cell("说明", 2, true));
+        ModelAttr modelAttr = table.getModelAttr();
+        if (modelAttr != null && modelAttr.getProperties() != null) {
+            for (ModelAttr property : modelAttr.getProperties()) {
+                row(xml, true, new Cell(property.getName(), 1, false), new Cell(property.getType(), 2, false),
+                        new Cell(property.getDescription(), 2, false));
+            }
+        }
+
+        row(xml, false, new Cell("示例", 5, true));
+        labelRow(xml, "请求参数", table.getRequestParam(), true);
+        labelRow(xml, "返回值", table.getResponseParam(), true);
+        xml.writeEndElement();
+        // 两张表格之间必须有段落，否则 Word 会把它们合并
+        paragraph(xml, null, "");
+    }
+
+    private void labelRow(XMLStreamWriter xml, String label, String value, boolean headerLabel) throws XMLStreamException {
+        row(xml, false, new Cell(label, 1, headerLabel), new Cell(value, 4, false));
+    }
+
+    private void row(XMLStreamWriter xml, boolean center, Cell... cells) throws XMLStreamException {
+        xml.writeStartElement("w", "tr", W);
+        int column = 0;
+        for (Cell cell : cells) {
+            xml.writeStartElement("w", "tc", W);
+            xml.writeStartElement("w", "tcPr", W);
+            xml.writeEmptyElement("w", "tcW", W);
+            xml.writeAttribute("w", W, "w", String.valueOf(width(column, cell.span)));
+            xml.writeAttribute("w", W, "type", "dxa");
+            if (cell.span > 1) {
+                xml.writeEmptyElement("w", "gridSpan", W);
+                xml.writeAttribute("w", W, "val", String.valueOf(cell.span));
+            }
+            if (cell.header) {
+                xml.writeEmptyElement("w", "shd", W);
+                xml.writeAttribute("w", W, "val", "clear");
+                xml.writeAttribute("w", W, "color", "auto");
+                xml.writeAttribute("w", W, "fill", HEADER_FILL);
+            }
+            xml.writeEmptyElement("w", "vAlign", W);
+            xml.writeAttribute("w", W, "val", "center");
+            xml.writeEndElement();
+
+            xml.writeStartElement("w", "p", W);
+            if (center) {
+                xml.writeStartElement("w", "pPr", W);
+                xml.writeEmptyElement("w", "jc", W);
+                xml.writeAttribute("w", W, "val", "center");
+                xml.writeEndElement();
+            }
+            run(xml, cell.text, cell.header, cell.header ? "FFFFFF" : null);
+            xml.writeEndElement();
+            xml.writeEndElement();
+            column += cell.span;
+        }
+        xml.writeEndElement();
+    }
+
+    private void paragraph(XMLStreamWriter xml, String style, String text) throws XMLStreamException {
+        xml.writeStartElement("w", "p", W);
+        if (style != null) {
+            xml.writeStartElement("w", "pPr", W);
+            xml.writeEmptyElement("w", "pStyle", W);
+            xml.writeAttribute("w", W, "val", style);
+            xml.writeEndElement();
+        }
+        if (!text.isEmpty()) {
+            run(xml, text, false, null);
+        }
+        xml.writeEndElement();
+    }
+
+    private void run(XMLStreamWriter xml, String text, boolean bold, String color) throws XMLStreamException {
+        xml.writeStartElement("w", "r", W);
+        if (bold || color != null) {
+            xml.writeStartElement("w", "rPr", W);
+            if (bold) {
+                xml.writeEmptyElement("w", "b", W);
+            }
+            if (color != null) {
+                xml.writeEmptyElement("w", "color", W);
+                xml.writeAttribute("w", W, "val", color);
+            }
+            xml.writeEndElement();
+        }
+        xml.writeStartElement("w", "t", W);
+        xml.writeAttribute("xml", XML, "space", "preserve");
+        xml.writeCharacters(sanitize(text));
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private static int width(int from, int span) {
+        int width = 0;
+        for (int i = from; i < from + span && i < GRID.length; i++) {
+            width += GRID[i];
+        }
+        return width;
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : String.valueOf(value);
+    }
+
+    /**
+     * 去掉 XML 中不允许出现的控制字符
+     */
+    private static String sanitize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean valid = c >= 0x20 ? c != 0xFFFE && c != 0xFFFF : c == '\t' || c == '\n' || c == '\r';
+            if (!valid && sb == null) {
+                sb = new StringBuilder(text.length()).append(text, 0, i);
+            } else if (valid && sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? text : sb.toString();
+    }
+
+    private static class Cell {
+
+        private final String text;
+
+        private final int span;
+
+        private final boolean header;
+
+        Cell(String text, int span, boolean header) {
+            this.text = text;
+            this.span = span;
+            this.header = header;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package org.word.convert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.word.model.ModelAttr;
+import org.word.parser.DefinitionIndex;
+import org.word.utils.JsonUtils;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 沿着引用索引生成请求和返回示例，属性引用的模型逐层展开
+ * <p>
+ * 每个模型（泛型实例在索引中是单独的模型）按展开深度只生成并序列化一次，嵌套的模型以已序列化的 json 片段直接输出。
+ * 循环引用和超过深度的位置输出模型名称；示例超过长度上限时逐级减小深度，深度为 1 仍超过时只保留放得下的属性，
+ * 截断的结果同样只生成一次。
+ * 同一份文档的各个接口共享一个实例，线程安全。
+ *
+ * @author XiuYin.Cui
+ */
+public class ExampleGenerator {
+
+    public static final int DEFAULT_MAX_DEPTH = 5;
+
+    public static final int DEFAULT_MAX_LENGTH = 16 * 1024;
+
+    /**
+     * 截断时最后一个属性的 key，值说明省略的属性数
+     */
+    public static final String OMITTED = "...";
+
+    /**
+     * 截断时为省略说明预留的长度
+     */
+    private static final int OMITTED_LENGTH = 32;
+
+    private final int maxDepth;
+
+    private final int maxLength;
+
+    /**
+     * 与展开路径无关的示例，key 为模型和剩余深度，值为 {@link RawValue}；截断的示例值为 {@link Truncated}
+     */
+    private final Map<Key, Object> examples = new ConcurrentHashMap<>();
+
+    public ExampleGenerator() {
+        this(DEFAULT_MAX_DEPTH, DEFAULT_MAX_LENGTH);
+    }
+
+    public ExampleGenerator(int maxDepth, int maxLength) {
+        this.maxDepth = Math.max(1, maxDepth);
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * 模型的示例 json
+     * @param node
+     * @return
+     */
+    public String example(DefinitionIndex.Node node) {
+        int depth = fittingDepth(node);
+        String json = json(value(node, depth, Collections.emptyList()));
+        if (json.length() > maxLength) {
+            return truncated(node, depth).json;
+        }
+        return json;
+    }
+
+    /**
+     * 模型各属性的示例值，嵌套的模型是已序列化的片段，可以直接放入 Map 由 Jackson 输出
+     * @param node
+     * @return
+     */
+    public Map<String, Object> properties(DefinitionIndex.Node node) {
+        int depth = fittingDepth(node);
+        if (json(value(node, depth, Collections.emptyList())).length() > maxLength) {
+            return truncated(node, depth).properties;
+        }
+        return properties(node, depth, Collections.singletonList(node));
+    }
+
+    /**
+     * 长度不超过上限的最大深度，各深度的结果都会缓存
+     */
+    private int fittingDepth(DefinitionIndex.Node node) {
+        int depth = maxDepth;
+        while (depth > 1 && json(value(node, depth, Collections.emptyList())).length() > maxLength) {
+            depth--;
+        }
+        return depth;
+    }
+
+    private Truncated truncated(DefinitionIndex.Node node, int depth) {
+        Key key = new Key(node, depth, true);
+        Truncated truncated = (Truncated) examples.get(key);
+        if (truncated == null) {
+            Map<String, Object> properties = Collections.unmodifiableMap(truncate(properties(node, depth, Collections.singletonList(node))));
+            truncated = new Truncated(properties, json(write(properties)));
+            Object previous = examples.putIfAbsent(key, truncated);
+            if (previous != null) {
+                truncated = (Truncated) previous;
+            }
+        }
+        return truncated;
+    }
+
+    /**
+     * 深度为 1 时嵌套的模型都已是名称，仍超过上限说明属性太多：按顺序保留放得下的属性，最后说明省略的个数
+     */
+    private Map<String, Object> truncate(Map<String, Object> properties) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        // 两边的括号和省略说明
+        int length = 2 + OMITTED_LENGTH;
+        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+            // 单个属性去掉括号再加上分隔的逗号
+            length += json(write(Collections.singletonMap(entry.getKey(), entry.getValue()))).length() - 1;
+            if (length > maxLength) {
+                break;
+            }
+            result.put(entry.getKey(), entry.getValue());
+        }
+        result.put(OMITTED, "省略 " + (properties.size() - result.size()) + " 个属性");
+        return result;
+    }
+
+    /**
+     * 不在循环引用上的模型到达不了路径上的任何模型；路径上还没有循环模型时，循环模型也到达不了路径。
+     * 这两种情况展开结果与路径无关，可以缓存；在循环模型内部则按路径展开并在回到路径上的模型时截断。
+     */
+    private RawValue value(DefinitionIndex.Node node, int depth, List<DefinitionIndex.Node> path) {
+        if (depth <= 0 || path.contains(node)) {
+            return placeholder(node);
+        }
+        if (node.isRecursive() && insideCycle(path)) {
+            return write(properties(node, depth, append(path, node)));
+        }
+        Key key = new Key(node, depth, false);
+        RawValue value = (RawValue) examples.get(key);
+        if (value == null) {
+            // 不用 computeIfAbsent，展开过程中会递归写入同一个 Map；并发时重复计算的结果相同
+            value = write(properties(node, depth, Collections.singletonList(node)));
+            Object previous = examples.putIfAbsent(key, value);
+            if (previous != null) {
+                value = (RawValue) previous;
+            }
+        }
+        return value;
+    }
+
+    private Map<String, Object> properties(DefinitionIndex.Node node, int depth, List<DefinitionIndex.Node> path) {
+        List<ModelAttr> properties = node.getProperties();
+        List<DefinitionIndex.Node> references = node.getReferences();
+        Map<String, Object> result = new LinkedHashMap<>(properties.size() * 4 / 3 + 1);
+        for (int i = 0; i < properties.size(); i++) {
+            ModelAttr property = properties.get(i);
+            String type = property.getType();
+            DefinitionIndex.Node reference = i < references.size() ? references.get(i) : null;
+            // 没有 $ref 的 data 属性按包装类型的泛型参数展开
+            if (reference == null && "data".equals(property.getName()) && ("array".equals(type) || "object".equals(type))) {
+                reference = node.getPayload();
+            }
+            if (reference == null) {
+                result.put(property.getName(), type);
+                continue;
+            }
+            RawValue nested = value(reference, depth - 1, path);
+            result.put(property.getName(), "array".equals(type) ? Collections.singletonList(nested) : nested);
+        }
+        return result;
+    }
+
+    private static boolean insideCycle(List<DefinitionIndex.Node> path) {
+        for (DefinitionIndex.Node node : path) {
+            if (node.isRecursive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<DefinitionIndex.Node> append(List<DefinitionIndex.Node> path, DefinitionIndex.Node node) {
+        List<DefinitionIndex.Node> next = new ArrayList<>(path.size() + 1);
+        next.addAll(path);
+        next.add(node);
+        return next;
+    }
+
+    private static RawValue placeholder(DefinitionIndex.Node node) {
+        return write(node.getName());
+    }
+
+    private static String json(RawValue value) {
+        return (String) value.rawValue();
+    }
+
+    private static RawValue write(Object value) {
+        try {
+            return new RawValue(JsonUtils.writeJsonStr(value));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 截断后的属性和序列化后的 json
+     */
+    private static final class Truncated {
+
+        private final Map<String, Object> properties;
+
+        private final String json;
+
+        Truncated(Map<String, Object> properties, String json) {
+            this.properties = properties;
+            this.json = json;
+        }
+    }
+
+    private static final class Key {
+
+        private final DefinitionIndex.Node node;
+
+        private final int depth;
+
+        private final boolean truncated;
+
+        Key(DefinitionIndex.Node node, int depth, boolean truncated) {
+            this.node = node;
+            this.depth = depth;
+            this.truncated = truncated;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return depth == key.depth && truncated == key.truncated && node == key.node;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(node), depth, truncated);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.word.convert;
+
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 不依赖 Spring 直接渲染 word.html（html 格式的 doc），只需要 thymeleaf；
+ * 表达式由 OGNL 求值，模板只用到属性访问和拼接，结果与服务中的 SpEL 一致
+ *
+ * @author XiuYin.Cui
+ */
+public class HtmlWriter {
+
+    private final ITemplateEngine templateEngine;
+
+    public HtmlWriter() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        TemplateEngine engine = new TemplateEngine();
+        engine.setTemplateResolver(resolver);
+        this.templateEngine = engine;
+    }
+
+    /**
+     * 以 UTF-8 渲染到输出流，不显示下载按钮，不关闭输出流
+     *
+     * @param result tableList 的结果
+     * @param out    输出流
+     */
+    public void write(Map<String, Object> result, OutputStream out) throws IOException {
+        Context context = new Context();
+        context.setVariables(result);
+        context.setVariable("download", 0);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        templateEngine.process("word", context, writer);
+        writer.flush();
+    }
+}
@@ -0,0 +1,425 @@
+package org.word.convert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.word.model.ModelAttr;
+import org.word.model.Request;
+import org.word.model.Response;
+import org.word.model.Table;
+import org.word.parser.DefinitionIndex;
+import org.word.parser.SwaggerOperation;
+import org.word.parser.SwaggerParameter;
+import org.word.parser.SwaggerResponse;
+import org.word.parser.SwaggerSchema;
+import org.word.parser.SwaggerSpec;
+import org.word.parser.SymbolTable;
+import org.word.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * 把解析后的 Swagger 文档封装成页面需要的 tableMap，不依赖 Spring 容器，
+ * 服务和基准测试都直接使用
+ *
+ * @author XiuYin.Cui
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+@Slf4j
+public class SpecConverter {
+
+    /**
+     * 接口路径 -> 内容摘要
+     */
+    public static final String OPERATION_HASHES = "operationHashes";
+
+    /**
+     * 大标题 -> 内容摘要，用于增量渲染
+     */
+    public static final String SECTION_HASHES = "sectionHashes";
+
+    private final ForkJoinPool pool;
+
+    /**
+     * 一组接口达到这个数量才并行封装
+     */
+    private final int parallelThreshold;
+
+    private final int exampleMaxDepth;
+
+    private final int exampleMaxLength;
+
+    /**
+     * 每份文档一个示例生成器，文档不再使用后随索引一起回收
+     */
+    private final Map<DefinitionIndex, ExampleGenerator> generators = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 全部在调用线程中顺序封装
+     */
+    public SpecConverter() {
+        this(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+    }
+
+    public SpecConverter(ForkJoinPool pool, int parallelThreshold) {
+        this(pool, parallelThreshold, ExampleGenerator.DEFAULT_MAX_DEPTH, ExampleGenerator.DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param exampleMaxDepth  示例中模型嵌套的最大层数
+     * @param exampleMaxLength 单个模型示例的最大长度（字符），超过时减少嵌套层数
+     */
+    public SpecConverter(ForkJoinPool pool, int parallelThreshold, int exampleMaxDepth, int exampleMaxLength) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.exampleMaxDepth = exampleMaxDepth;
+        this.exampleMaxLength = exampleMaxLength;
+    }
+
+    /**
+     * 把解析后的文档转换为页面需要的 tableMap 和 info
+     * <p>
+     * tableMap 按大标题排序，每个标题下的接口在遍历到时才封装，渲染时内存只与最大的一组相关
+     * @param spec
+     * @return
+     */
+    public Map<String, Object> convert(SwaggerSpec spec) throws IOException {
+        return convert(spec, null);
+    }
+
+    /**
+     * @param spec
+     * @param processListener 每封装完一组接口回调一次耗时（纳秒），可以为 null
+     * @return
+     */
+    public Map<String, Object> convert(SwaggerSpec spec, LongConsumer processListener) throws IOException {
+        Map<String, Object> resultMap = new HashMap<>();
+
+        //解析model，引用关系在解析时已建立索引
+        DefinitionIndex index = spec.getIndex();
+
+        //解析paths，按大标题分组
+        SortedMap<String, List<SwaggerOperation>> groups = spec.getOperations().stream()
+                .collect(Collectors.groupingBy(SwaggerOperation::getTitle, TreeMap::new, Collectors.toList()));
+        resultMap.put("tableMap", new TableMap(groups, operations -> {
+            long start = System.nanoTime();
+            List<Table> tables = processOperations(operations, index);
+            if (processListener != null) {
+                processListener.accept(System.nanoTime() - start);
+            }
+            return tables;
+        }));
+        resultMap.put("info", spec.getInfo());
+        putHashes(resultMap, groups, index);
+
+        if (log.isDebugEnabled()) {
+            log.debug(JsonUtils.writeJsonStr(resultMap));
+        }
+        return resultMap;
+    }
+
+    /**
+     * 计算每个接口和每个大标题的内容摘要，顺序与 tableMap 一致
+     */
+    private void putHashes(Map<String, Object> resultMap, SortedMap<String, List<SwaggerOperation>> groups, DefinitionIndex index) {
+        ContentHasher hasher = new ContentHasher(index);
+        Map<String, String> operationHashes = new LinkedHashMap<>();
+        Map<String, String> sectionHashes = new LinkedHashMap<>();
+        for (Map.Entry<String, List<SwaggerOperation>> group : groups.entrySet()) {
+            List<String> hashes = new ArrayList<>(group.getValue().size());
+            for (SwaggerOperation operation : group.getValue()) {
+                String hash = hasher.operationHash(operation);
+                operationHashes.put(operation.getUrl(), hash);
+                hashes.add(hash);
+            }
+            sectionHashes.put(group.getKey(), hasher.sectionHash(group.getKey(), hashes));
+        }
+        resultMap.put(OPERATION_HASHES, operationHashes);
+        resultMap.put(SECTION_HASHES, sectionHashes);
+    }
+
+    /**
+     * 封装一组接口，定义是只读的，接口多时在 fork/join 线程池中并行处理，结果保持原有顺序
+     * @param operations
+     * @param index
+     * @return
+     */
+    public List<Table> processOperations(List<SwaggerOperation> operations, DefinitionIndex index) {
+        if (operations.size() < parallelThreshold) {
+            List<Table> result = new ArrayList<>(operations.size());
+            for (SwaggerOperation operation : operations) {
+                result.add(processOperationUnchecked(operation, index));
+            }
+            return result;
+        }
+        return pool.submit(() -> operations.parallelStream()
+                .map(operation -> processOperationUnchecked(operation, index))
+                .collect(Collectors.toList())).join();
+    }
+
+    private Table processOperationUnchecked(SwaggerOperation operation, DefinitionIndex index) {
+        try {
+            return processOperation(operation, index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 封装单个接口
+     * @param operation
+     * @param index
+     * @return
+     */
+    public Table processOperation(SwaggerOperation operation, DefinitionIndex index) throws IOException {
+        SymbolTable symbols = index.getSymbols();
+
+        // 7.请求参数格式，类似于 multipart/form-data，同样的组合只拼接一次
+        String requestForm = symbols.join(operation.getConsumes());
+
+        // 8.返回参数格式，类似于 application/json
+        String responseForm = symbols.join(operation.getProduces());
+
+        // 10.返回体
+        Map<String, SwaggerResponse> responses = operation.getResponses();
+        if (responses == null) {
+            responses = new LinkedHashMap<>();
+        }
+
+        //封装Table
+        Table table = new Table();
+
+        table.setTitle(operation.getTitle());
+        table.setUrl(operation.getUrl());
+        table.setTag(operation.getSummary());
+        table.setDescription(operation.getSummary());
+        table.setRequestForm(requestForm);
+        table.setResponseForm(responseForm);
+        table.setRequestType(operation.getRequestType());
+        table.setRequestList(processRequestList(operation.getParameters(), index));
+        table.setResponseList(processResponseCodeList(responses));
+
+        // 取出来状态是200时的返回值
+        SwaggerResponse obj = responses.get("200");
+        if (obj != null && obj.getSchema() != null) {
+            table.setModelAttr(processResponseModelAttrs(obj.getSchema(), index));
+        }
+
+        //示例
+        table.setRequestParam(processRequestParam(table.getRequestList(), index));
+        table.setResponseParam(processResponseParam(obj, index));
+        return table;
+    }
+
+    /**
+     * 处理请求参数列表
+     * @param parameters
+     * @return
+     */
+    private List<Request> processRequestList(List<SwaggerParameter> parameters, DefinitionIndex index) {
+        List<Request> requestList = new ArrayList<>();
+        if (!isEmpty(parameters)) {
+            for (SwaggerParameter param : parameters) {
+                String in = param.getIn();
+                Request request = new Request();
+                requestList.add(request);
+                String paramName = String.valueOf(param.getName());
+                request.setName(paramName);
+                request.setType(param.getType() == null ? "object" : param.getType());
+                request.setParamType(String.valueOf(in));
+                // 考虑对象参数类型，数组取元素的模型
+                if ("body".equals(in)) {
+                    String ref = param.getSchema() == null ? null : param.getSchema().modelRef();
+                    // Dto对象情况处理
+                    handleDto(index, requestList, ref, paramName);
+                    request.setParamType(ref == null ? "{}" : ref);
+                }
+                // 是否必填
+                request.setRequire(param.isRequired());
+                // 参数说明
+                request.setRemark(String.valueOf(param.getDescription()));
+                request.setParamType(index.getSymbols().displayName(request.getParamType()));
+                request.setCssType(false);
+            }
+        }
+        return requestList;
+    }
+
+    private void handleDto(DefinitionIndex index, List<Request> requestList, String ref, String paramName) {
+        if (ref == null) {
+            return;
+        }
+        DefinitionIndex.Node item = index.get(ref);
+        if (null == item) {
+            return;
+        }
+        Request request = new Request();
+        request.setName(index.getSymbols().intern("    " + paramName + "详情信息如下"));
+        request.setType("--");
+        request.setParamType("--");
+        request.setRemark("--");
+        request.setRequire(false);
+        request.setCssType(true);
+        requestList.add(request);
+        for (ModelAttr mi : item.getProperties()) {
+            Request request1 = new Request();
+            request1.setName(mi.getName());
+            request1.setType(mi.getType());
+            request1.setParamType(mi.getType());
+            request1.setRemark(mi.getDescription());
+            request1.setRequire(false);
+            request1.setCssType(false);
+            requestList.add(request1);
+        }
+    }
+
+
+    /**
+     * 处理返回码列表
+     * @param responses 全部状态码返回对象
+     * @return
+     */
+    private List<Response> processResponseCodeList(Map<String, SwaggerResponse> responses) {
+        List<Response> responseList = new ArrayList<>();
+        for (Map.Entry<String, SwaggerResponse> entry : responses.entrySet()) {
+            Response response = new Response();
+            // 状态码 200 201 401 403 404 这样
+            response.setName(entry.getKey());
+            SwaggerResponse statusCodeInfo = entry.getValue();
+            response.setDescription(String.valueOf(statusCodeInfo.getDescription()));
+            SwaggerSchema schema = statusCodeInfo.getSchema();
+            if (schema != null) {
+                response.setRemark(StringUtils.defaultString(schema.getOriginalRef()));
+            }
+            responseList.add(response);
+        }
+        return responseList;
+    }
+
+    /**
+     * 处理返回值
+     * @param responseObj
+     * @return
+     */
+    public String processResponseParam(SwaggerResponse responseObj, DefinitionIndex index) throws JsonProcessingException {
+        if (responseObj != null && responseObj.getSchema() != null) {
+            // 对象，数组取元素的模型
+            return setObjectParams(index.get(responseObj.getSchema().modelRef()), index);
+        }
+        return StringUtils.EMPTY;
+    }
+
+    /**
+     * 处理返回属性列表
+     * @param schema
+     * @param index
+     * @return
+     */
+    private ModelAttr processResponseModelAttrs(SwaggerSchema schema, DefinitionIndex index) {
+        //其他类型
+        ModelAttr modelAttr = new ModelAttr();
+        modelAttr.setType(StringUtils.defaultIfBlank(schema.getType(), StringUtils.EMPTY));
+
+        //对象，数组取元素的模型
+        DefinitionIndex.Node node = index.get(schema.modelRef());
+        if (node != null) {
+            List<ModelAttr> dataProperties = Collections.emptyList();
+            for (ModelAttr subModelAttr : node.getProperties()) {
+                if (subModelAttr.getName().equals("data")) {
+                    dataProperties = getChildModelAttrs(subModelAttr, node);
+                }
+            }
+            // 定义会被多个接口共享，只在上面叠加 data 的属性
+            modelAttr = ModelAttr.overlay(node.getModel(), dataProperties);
+        }
+        return modelAttr;
+    }
+
+    /**
+     * 模型的示例 json，引用的模型逐层展开，同一份文档中每个模型只生成一次
+     * @param node
+     * @param index
+     * @return
+     */
+    public String setObjectParams(DefinitionIndex.Node node, DefinitionIndex index) {
+        if (node == null || isEmpty(node.getProperties())) {
+            return StringUtils.EMPTY;
+        }
+        return generator(index).example(node);
+    }
+
+    private List<ModelAttr> getChildModelAttrs(ModelAttr subModelAttr, DefinitionIndex.Node node) {
+        if (subModelAttr.getType().equals("array") || subModelAttr.getType().equals("object")) {
+            DefinitionIndex.Node modelAttr1 = node.getPayload();
+            if (modelAttr1 != null && !isEmpty(modelAttr1.getProperties())) {
+                return modelAttr1.getProperties();
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 封装请求体
+     * @param list
+     * @param index
+     * @return
+     */
+    public String processRequestParam(List<Request> list, DefinitionIndex index) throws IOException {
+        Map<String, Object> paramMap = new LinkedHashMap<>(8);
+        // 请求体展开后，handleDto 紧接着列出的该模型的明细行数，这些行不再覆盖展开的示例；其他同名的真实参数照常写入
+        int details = 0;
+        if (list != null && list.size() > 0) {
+            for (Request request : list) {
+                String name = request.getName();
+                String type = request.getType();
+                if (Boolean.TRUE.equals(request.getCssType())) {
+                    continue;
+                }
+                if (details > 0) {
+                    details--;
+                    continue;
+                }
+                switch (type) {
+                    case "string":
+                        paramMap.put(name, "string");
+                        break;
+                    case "integer":
+                        paramMap.put(name, 0);
+                        break;
+                    case "number":
+                        paramMap.put(name, 0.0);
+                        break;
+                    case "boolean":
+                        paramMap.put(name, true);
+                        break;
+                    case "body":
+                    case "object":
+                        DefinitionIndex.Node modelAttr = index.getByName(request.getParamType());
+                        if (modelAttr != null && !isEmpty(modelAttr.getProperties())) {
+                            Map<String, Object> properties = generator(index).properties(modelAttr);
+                            paramMap.putAll(properties);
+                            details = modelAttr.getProperties().size();
+                            break;
+                        }
+                    default:
+                        paramMap.put(name, null);
+                        break;
+                }
+            }
+        }
+        return JsonUtils.writeJsonStr(paramMap);
+    }
+
+    private ExampleGenerator generator(DefinitionIndex index) {
+        return generators.computeIfAbsent(index, key -> new ExampleGenerator(exampleMaxDepth, exampleMaxLength));
+    }
+
+    private static boolean isEmpty(Collection<?> collection) {
+        return collection == null || collection.isEmpty();
+    }
+}
@@ -0,0 +1,114 @@
+package org.word.convert;
+
+import org.word.model.Table;
+import org.word.parser.SwaggerOperation;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Function;
+
+/**
+ * 按大标题分组的只读 tableMap，第一次取到某一组时才把该组接口封装成 Table，
+ * 结果随 tableMap 保留，之后的遍历和 get 直接返回，并发取同一组时只封装一次
+ *
+ * @author XiuYin.Cui
+ */
+class TableMap extends AbstractMap<String, List<Table>> {
+
+    private final Map<String, Section> sections = new LinkedHashMap<>();
+
+    private final Function<List<SwaggerOperation>, List<Table>> processor;
+
+    TableMap(SortedMap<String, List<SwaggerOperation>> groups, Function<List<SwaggerOperation>, List<Table>> processor) {
+        this.processor = processor;
+        for (Entry<String, List<SwaggerOperation>> group : groups.entrySet()) {
+            sections.put(group.getKey(), new Section(group.getKey(), group.getValue()));
+        }
+    }
+
+    @Override
+    public List<Table> get(Object key) {
+        Section section = sections.get(key);
+        return section == null ? null : section.getValue();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return sections.containsKey(key);
+    }
+
+    @Override
+    public Set<Entry<String, List<Table>>> entrySet() {
+        return new AbstractSet<Entry<String, List<Table>>>() {
+            @Override
+            public Iterator<Entry<String, List<Table>>> iterator() {
+                Iterator<Section> it = sections.values().iterator();
+                return new Iterator<Entry<String, List<Table>>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, List<Table>> next() {
+                        return it.next();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return sections.size();
+            }
+        };
+    }
+
+    /**
+     * 一组接口，封装后不再需要原始的接口列表
+     */
+    private class Section implements Entry<String, List<Table>> {
+
+        private final String key;
+
+        private List<SwaggerOperation> operations;
+
+        private volatile List<Table> tables;
+
+        Section(String key, List<SwaggerOperation> operations) {
+            this.key = key;
+            this.operations = operations;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public List<Table> getValue() {
+            List<Table> result = tables;
+            if (result == null) {
+                synchronized (this) {
+                    result = tables;
+                    if (result == null) {
+                        result = processor.apply(operations);
+                        tables = result;
+                        operations = null;
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<Table> setValue(List<Table> value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
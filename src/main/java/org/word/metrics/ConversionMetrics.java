@@ -0,0 +1,224 @@
+package org.word.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.word.config.PrewarmProperties;
+import org.word.source.FileSpecSource;
+import org.word.source.UploadSpecSource;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 转换过程的监控指标，按 swagger 地址的 host 打标签，通过 /actuator/prometheus 暴露。
+ * 地址由用户传入，只有配置过的 host 单独打标签，其余归为 other，标签数量不随请求增长
+ *
+ * @author XiuYin.Cui
+ */
+@Component
+public class ConversionMetrics {
+
+    /**
+     * 从发出请求到收到响应头（含获取连接、建立连接、服务端处理）
+     */
+    public static final String STAGE_FETCH = "fetch";
+
+    /**
+     * 读取并解析响应体，响应体是边下载边解析的
+     */
+    public static final String STAGE_PARSE = "parse";
+
+    /**
+     * 封装一组（一个大标题）接口
+     */
+    public static final String STAGE_PROCESS = "process";
+
+    /**
+     * 模板渲染，接口在渲染遍历时才封装，所以包含 process 的时间
+     */
+    public static final String STAGE_RENDER = "render";
+
+    /**
+     * 被合并的转换：获取、解析和封装
+     */
+    public static final String COALESCED_CONVERT = "convert";
+
+    /**
+     * 被合并的渲染
+     */
+    public static final String COALESCED_RENDER = "render";
+
+    private static final String UNKNOWN_HOST = "unknown";
+
+    private static final String OTHER_HOST = "other";
+
+    private final MeterRegistry registry;
+
+    /**
+     * swagger.url、预热地址和 swagger.metrics.hosts 中的 host，小写
+     */
+    private final Set<String> knownHosts = new HashSet<>();
+
+    /**
+     * @param swaggerUrl 默认地址
+     * @param hosts      另外需要单独打标签的 host
+     * @param prewarm    预热地址
+     */
+    public ConversionMetrics(MeterRegistry registry,
+                             @Value("${swagger.url:}") String swaggerUrl,
+                             @Value("${swagger.metrics.hosts:}") String[] hosts,
+                             PrewarmProperties prewarm) {
+        this.registry = registry;
+        addHost(parseHost(swaggerUrl));
+        for (String url : prewarm.getUrls()) {
+            addHost(parseHost(url));
+        }
+        for (String host : hosts) {
+            addHost(host);
+        }
+    }
+
+    public void recordStage(String stage, String url, long nanos) {
+        Timer.builder("swagger2word.stage")
+                .description("time spent in each conversion stage")
+                .tag("stage", stage)
+                .tag("host", host(url))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录解析后的文档大小
+     */
+    public void recordSpec(String url, long bytes, int operations, int definitions) {
+        String host = host(url);
+        summary("swagger2word.spec.bytes", "bytes", host).record(bytes);
+        summary("swagger2word.spec.operations", "operations", host).record(operations);
+        summary("swagger2word.spec.definitions", "definitions", host).record(definitions);
+    }
+
+    public void recordOutput(String url, long bytes) {
+        summary("swagger2word.output.bytes", "bytes", host(url)).record(bytes);
+    }
+
+    public void parseFailure(String url, Throwable e) {
+        Counter.builder("swagger2word.parse.failures")
+                .description("swagger json that could not be fetched or parsed")
+                .tag("host", host(url))
+                .tag("exception", e.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 读取中追加内存预留失败被拒绝的请求，不计入 parseFailure
+     */
+    public void budgetRejected(String url) {
+        Counter.builder("swagger2word.budget.rejections")
+                .description("requests rejected because the memory budget was exhausted")
+                .tag("host", host(url))
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 等待并共享同一文档正在进行的转换或渲染，而没有自己执行的请求
+     */
+    public void coalesced(String operation, String url) {
+        Counter.builder("swagger2word.coalesced")
+                .description("requests that shared an in-flight conversion or render")
+                .tag("operation", operation)
+                .tag("host", host(url))
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 预热地址距离最近一次成功刷新的秒数；预热地址来自配置，数量有限，按完整地址打标签
+     */
+    public <T> void prewarmLag(String url, T state, ToDoubleFunction<T> lagSeconds) {
+        Gauge.builder("swagger2word.prewarm.lag", state, lagSeconds)
+                .description("seconds since the last successful prewarm refresh")
+                .tag("url", url)
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * 一次预热刷新（获取、转换和渲染）的耗时
+     */
+    public void recordPrewarm(String url, long nanos) {
+        Timer.builder("swagger2word.prewarm.duration")
+                .description("time spent refreshing a prewarmed spec")
+                .tag("url", url)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void prewarmFailure(String url, Throwable e) {
+        Counter.builder("swagger2word.prewarm.failures")
+                .description("prewarm refreshes that failed")
+                .tag("url", url)
+                .tag("exception", e.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    private DistributionSummary summary(String name, String unit, String host) {
+        return DistributionSummary.builder(name)
+                .baseUnit(unit)
+                .tag("host", host)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private String host(String url) {
+        if (url == null) {
+            return UNKNOWN_HOST;
+        }
+        // 本地文件和上传的文件按来源类型打标签，避免文件名撑大标签数量
+        if (StringUtils.startsWithIgnoreCase(url, FileSpecSource.SCHEME)) {
+            return "file";
+        }
+        if (url.startsWith(UploadSpecSource.SCHEME)) {
+            return "upload";
+        }
+        String host = parseHost(url);
+        if (host == null) {
+            return UNKNOWN_HOST;
+        }
+        return knownHosts.contains(host) ? host : OTHER_HOST;
+    }
+
+    private void addHost(String host) {
+        if (StringUtils.isNotBlank(host)) {
+            knownHosts.add(host.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * @return 小写的 host，无法解析时为 null
+     */
+    private static String parseHost(String url) {
+        if (StringUtils.isBlank(url)) {
+            return null;
+        }
+        try {
+            String host = URI.create(url.trim()).getHost();
+            return host == null ? null : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
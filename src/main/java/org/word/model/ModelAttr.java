@@ -1,10 +1,13 @@
 package org.word.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import org.apache.commons.lang3.StringUtils;
+import org.word.utils.ConcatList;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -33,8 +36,31 @@ public class ModelAttr implements Serializable {
      * 属性描述
      */
     private String description;
+    /**
+     * 属性引用的模型，$ref 或数组的 items.$ref，只用于建立索引
+     */
+    @JsonIgnore
+    private String ref;
     /**
      * 嵌套属性列表
      */
     private List<ModelAttr> properties = new ArrayList<>();
+
+    /**
+     * 在共享的模型定义上叠加额外属性，得到单个接口使用的视图，不修改也不拷贝原定义
+     * @param definition 共享的模型定义
+     * @param extra 追加在后面的属性
+     * @return
+     */
+    public static ModelAttr overlay(ModelAttr definition, List<ModelAttr> extra) {
+        ModelAttr view = new ModelAttr();
+        view.setClassName(definition.getClassName());
+        view.setName(definition.getName());
+        view.setType(definition.getType());
+        view.setDescription(definition.getDescription());
+        view.setRef(definition.getRef());
+        view.setProperties(extra.isEmpty() ? definition.getProperties()
+                : Collections.unmodifiableList(new ConcatList<>(definition.getProperties(), extra)));
+        return view;
+    }
 }
@@ -0,0 +1,59 @@
+package org.word.model;
+
+import lombok.Data;
+
+/**
+ * 一个预热地址的刷新情况，时间为毫秒时间戳，没有发生过时为 0
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class PrewarmStatus {
+
+    private String url;
+
+    /**
+     * 最近一次开始刷新的时间
+     */
+    private long lastAttempt;
+
+    /**
+     * 最近一次成功的时间
+     */
+    private long lastSuccess;
+
+    /**
+     * 距离最近一次成功的毫秒数，从未成功时从启动开始计算
+     */
+    private long lag;
+
+    /**
+     * 最近一次刷新（获取、转换和渲染）的耗时，毫秒
+     */
+    private long duration;
+
+    /**
+     * 最近一次成功时的文档摘要
+     */
+    private String specHash;
+
+    /**
+     * 累计失败次数
+     */
+    private long failures;
+
+    /**
+     * 连续失败次数，成功后清零
+     */
+    private int consecutiveFailures;
+
+    /**
+     * 最近一次失败的原因
+     */
+    private String lastError;
+
+    /**
+     * 下一次刷新的时间
+     */
+    private long nextRefresh;
+}
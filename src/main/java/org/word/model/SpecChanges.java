@@ -0,0 +1,47 @@
+package org.word.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 两个文档版本之间的接口变化
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class SpecChanges {
+
+    private String url;
+
+    /**
+     * 起始版本摘要
+     */
+    private String from;
+
+    /**
+     * 目标版本摘要
+     */
+    private String to;
+
+    /**
+     * 新增的接口路径
+     */
+    private List<String> added = new ArrayList<>();
+
+    /**
+     * 删除的接口路径
+     */
+    private List<String> removed = new ArrayList<>();
+
+    /**
+     * 内容有变化的接口路径
+     */
+    private List<String> changed = new ArrayList<>();
+
+    /**
+     * 有变化（包括新增、删除）的大标题
+     */
+    private List<String> changedSections = new ArrayList<>();
+}
@@ -0,0 +1,35 @@
+package org.word.model;
+
+import lombok.Data;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 文档目录：大标题和接口数，只读取 tags，不封装接口，用于选择需要转换的部分
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class SpecIndex {
+
+    /**
+     * 文档信息（title、version 等）
+     */
+    private Map<String, Object> info;
+
+    /**
+     * 接口数，与转换结果一样每个路径算一个
+     */
+    private int operations;
+
+    /**
+     * definitions 中的模型数
+     */
+    private int definitions;
+
+    /**
+     * 大标题 -> 接口数，按标题排序
+     */
+    private Map<String, Integer> tags = new TreeMap<>();
+}
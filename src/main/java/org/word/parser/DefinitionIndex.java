@@ -0,0 +1,199 @@
+package org.word.parser;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.word.model.ModelAttr;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模型定义的引用索引
+ * <p>
+ * 解析完 definitions 后一次性建立：泛型类名解析为 {@link TypeName}，属性上的 $ref 指向对应节点，
+ * 包装类型直接指向承载数据的模型，并标记出循环引用。封装接口时只做指针访问，不再拼接 key 和匹配正则。
+ *
+ * @author XiuYin.Cui
+ */
+@Slf4j
+public class DefinitionIndex {
+
+    private static final Integer VISITING = 1;
+
+    private static final Integer DONE = 2;
+
+    private static final DefinitionIndex EMPTY = new DefinitionIndex(Collections.emptyMap());
+
+    private final Map<String, Node> nodes;
+
+    private final SymbolTable symbols;
+
+    public DefinitionIndex(Map<String, ModelAttr> definitions) {
+        this(definitions, new SymbolTable());
+    }
+
+    /**
+     * @param symbols 解析时使用的字符串表，封装接口时继续使用
+     */
+    public DefinitionIndex(Map<String, ModelAttr> definitions, SymbolTable symbols) {
+        this.symbols = symbols;
+        nodes = new HashMap<>(Math.max(16, definitions.size() * 4 / 3 + 1));
+        for (Map.Entry<String, ModelAttr> entry : definitions.entrySet()) {
+            String name = stripPrefix(entry.getKey());
+            nodes.put(name, new Node(name, TypeName.parse(name), entry.getValue()));
+        }
+        for (Node node : nodes.values()) {
+            link(node);
+        }
+        markRecursive();
+    }
+
+    public static DefinitionIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 按 $ref 查找，例如 #/definitions/UserDto
+     * @param ref
+     * @return
+     */
+    public Node get(String ref) {
+        if (ref == null || !ref.startsWith(SwaggerParser.DEFINITION_PREFIX)) {
+            return null;
+        }
+        return nodes.get(ref.substring(SwaggerParser.DEFINITION_PREFIX.length()));
+    }
+
+    /**
+     * 按模型名称查找，例如 UserDto
+     * @param name
+     * @return
+     */
+    public Node getByName(String name) {
+        return name == null ? null : nodes.get(name);
+    }
+
+    public Collection<Node> nodes() {
+        return Collections.unmodifiableCollection(nodes.values());
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    private static String stripPrefix(String ref) {
+        return ref.startsWith(SwaggerParser.DEFINITION_PREFIX) ? ref.substring(SwaggerParser.DEFINITION_PREFIX.length()) : ref;
+    }
+
+    private void link(Node node) {
+        List<ModelAttr> properties = node.model.getProperties();
+        List<Node> references = new ArrayList<>(properties.size());
+        for (ModelAttr property : properties) {
+            references.add(get(property.getRef()));
+        }
+        node.references = Collections.unmodifiableList(references);
+        TypeName payload = node.type.payload();
+        node.payload = payload == null ? null : nodes.get(payload.toString());
+    }
+
+    /**
+     * 深度优先遍历属性引用，回边所在环上的节点都标记为循环引用
+     */
+    private void markRecursive() {
+        Map<Node, Integer> state = new HashMap<>(nodes.size() * 4 / 3 + 1);
+        Deque<Node> path = new ArrayDeque<>();
+        Deque<Integer> cursor = new ArrayDeque<>();
+        for (Node root : nodes.values()) {
+            if (state.containsKey(root)) {
+                continue;
+            }
+            state.put(root, VISITING);
+            path.push(root);
+            cursor.push(0);
+            while (!path.isEmpty()) {
+                Node current = path.peek();
+                int index = cursor.pop();
+                if (index >= current.references.size()) {
+                    state.put(current, DONE);
+                    path.pop();
+                    continue;
+                }
+                cursor.push(index + 1);
+                Node next = current.references.get(index);
+                if (next == null) {
+                    continue;
+                }
+                Integer nextState = state.get(next);
+                if (nextState == null) {
+                    state.put(next, VISITING);
+                    path.push(next);
+                    cursor.push(0);
+                } else if (VISITING.equals(nextState)) {
+                    for (Node onCycle : path) {
+                        onCycle.recursive = true;
+                        if (onCycle == next) {
+                            break;
+                        }
+                    }
+                    if (log.isDebugEnabled()) {
+                        log.debug("recursive definition: {} -> {}", current.name, next.name);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 索引中的模型节点
+     */
+    @Getter
+    public static class Node {
+
+        /**
+         * 模型名称，不带 #/definitions/ 前缀
+         */
+        private final String name;
+
+        /**
+         * 名称解析后的泛型类型树
+         */
+        private final TypeName type;
+
+        private final ModelAttr model;
+
+        /**
+         * 与 model.properties 一一对应的引用节点，没有 $ref 或引用不存在时为 null
+         */
+        private List<Node> references = Collections.emptyList();
+
+        /**
+         * 包装类型承载的数据模型，Result«List«UserDto»» 指向 UserDto
+         */
+        private Node payload;
+
+        /**
+         * 是否处在循环引用上
+         */
+        private boolean recursive;
+
+        Node(String name, TypeName type, ModelAttr model) {
+            this.name = name;
+            this.type = type;
+            this.model = model;
+        }
+
+        public List<ModelAttr> getProperties() {
+            return model.getProperties();
+        }
+    }
+}
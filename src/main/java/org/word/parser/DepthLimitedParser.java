@@ -0,0 +1,66 @@
+package org.word.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+import java.io.IOException;
+
+/**
+ * 限制嵌套层数的 JsonParser，超过时立即抛出 {@link SpecLimitException}
+ * <p>
+ * skipChildren 也逐个读取 token，跳过的子树同样受限制；readValueAs 通过本对象读取，也受限制。
+ *
+ * @author XiuYin.Cui
+ */
+class DepthLimitedParser extends JsonParserDelegate {
+
+    private final int maxDepth;
+
+    private int depth;
+
+    DepthLimitedParser(JsonParser parser, int maxDepth) {
+        super(parser);
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        JsonToken token = delegate.nextToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            if (++depth > maxDepth) {
+                throw new SpecLimitException("swagger json is nested deeper than " + maxDepth + " levels");
+            }
+        } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+            depth--;
+        }
+        return token;
+    }
+
+    @Override
+    public JsonToken nextValue() throws IOException {
+        JsonToken token = nextToken();
+        return token == JsonToken.FIELD_NAME ? nextToken() : token;
+    }
+
+    @Override
+    public JsonParser skipChildren() throws IOException {
+        JsonToken token = currentToken();
+        if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+            return this;
+        }
+        int open = 1;
+        while (open > 0) {
+            token = nextToken();
+            if (token == null) {
+                break;
+            }
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                open++;
+            } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                open--;
+            }
+        }
+        return this;
+    }
+}
@@ -0,0 +1,115 @@
+package org.word.parser;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 解析时筛选接口：大标题（第一个 tag）、路径前缀和请求方式，不满足的接口直接跳过，不会读出参数和返回体
+ * <p>
+ * 各条件之间是“且”，同一条件的多个值之间是“或”，不传的条件不做限制。
+ *
+ * @author XiuYin.Cui
+ */
+public final class OperationFilter {
+
+    /**
+     * 不做任何筛选
+     */
+    public static final OperationFilter ALL = new OperationFilter(Collections.emptySet(), null, Collections.emptySet());
+
+    private final Set<String> tags;
+
+    private final String pathPrefix;
+
+    private final Set<String> methods;
+
+    private OperationFilter(Set<String> tags, String pathPrefix, Set<String> methods) {
+        this.tags = tags;
+        this.pathPrefix = pathPrefix;
+        this.methods = methods;
+    }
+
+    /**
+     * @param tags       大标题，可以为 null
+     * @param pathPrefix 路径前缀，例如 /user，可以为 null
+     * @param methods    请求方式，不区分大小写，可以为 null
+     */
+    public static OperationFilter of(Collection<String> tags, String pathPrefix, Collection<String> methods) {
+        Set<String> tagSet = new TreeSet<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (StringUtils.isNotBlank(tag)) {
+                    tagSet.add(tag.trim());
+                }
+            }
+        }
+        Set<String> methodSet = new TreeSet<>();
+        if (methods != null) {
+            for (String method : methods) {
+                if (StringUtils.isNotBlank(method)) {
+                    methodSet.add(method.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        String prefix = StringUtils.trimToNull(pathPrefix);
+        if (tagSet.isEmpty() && prefix == null && methodSet.isEmpty()) {
+            return ALL;
+        }
+        return new OperationFilter(Collections.unmodifiableSet(tagSet), prefix, Collections.unmodifiableSet(methodSet));
+    }
+
+    public boolean isEmpty() {
+        return this == ALL;
+    }
+
+    public boolean matchesPath(String url) {
+        return pathPrefix == null || (url != null && url.startsWith(pathPrefix));
+    }
+
+    public boolean matchesMethod(String method) {
+        return methods.isEmpty() || (method != null && methods.contains(method.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * @param title 接口的第一个 tag，没有 tag 时为 null
+     */
+    public boolean matchesTag(String title) {
+        return tags.isEmpty() || tags.contains(title);
+    }
+
+    /**
+     * 各条件按固定顺序输出，相同的筛选条件结果相同，用作缓存和并发合并的 key
+     */
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return StringUtils.EMPTY;
+        }
+        StringBuilder key = new StringBuilder();
+        if (!tags.isEmpty()) {
+            key.append("tag=").append(StringUtils.join(tags, ','));
+        }
+        if (pathPrefix != null) {
+            key.append(key.length() == 0 ? "" : "&").append("path=").append(pathPrefix);
+        }
+        if (!methods.isEmpty()) {
+            key.append(key.length() == 0 ? "" : "&").append("method=").append(StringUtils.join(methods, ','));
+        }
+        return key.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof OperationFilter && toString().equals(o.toString()));
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+}
@@ -0,0 +1,47 @@
+package org.word.parser;
+
+/**
+ * 解析时的限制：嵌套层数、接口数和模型数，0 表示不限制
+ *
+ * @author XiuYin.Cui
+ */
+public final class ParseLimits {
+
+    /**
+     * 不做任何限制
+     */
+    public static final ParseLimits NONE = new ParseLimits(0, 0, 0);
+
+    private final int maxDepth;
+
+    private final int maxOperations;
+
+    private final int maxDefinitions;
+
+    /**
+     * @param maxDepth       对象和数组的最大嵌套层数，跳过的内容也计算在内
+     * @param maxOperations  paths 中的最大接口数，每个路径下的每种请求方式计为一个，不满足筛选条件的也计算在内
+     * @param maxDefinitions definitions 中的最大模型数
+     */
+    public ParseLimits(int maxDepth, int maxOperations, int maxDefinitions) {
+        this.maxDepth = maxDepth;
+        this.maxOperations = maxOperations;
+        this.maxDefinitions = maxDefinitions;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    void checkOperations(int count) {
+        if (maxOperations > 0 && count > maxOperations) {
+            throw new SpecLimitException("swagger json has more than " + maxOperations + " operations");
+        }
+    }
+
+    void checkDefinitions(int count) {
+        if (maxDefinitions > 0 && count > maxDefinitions) {
+            throw new SpecLimitException("swagger json has more than " + maxDefinitions + " definitions");
+        }
+    }
+}
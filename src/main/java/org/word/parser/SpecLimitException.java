@@ -0,0 +1,15 @@
+package org.word.parser;
+
+/**
+ * 文档超过大小、嵌套层数、接口数、模型数或获取时间的限制，读取到超出的位置时立即抛出，不再继续读取
+ *
+ * @author XiuYin.Cui
+ */
+public class SpecLimitException extends RuntimeException {
+
+    private static final long serialVersionUID = -5726097224206161342L;
+
+    public SpecLimitException(String message) {
+        super(message);
+    }
+}
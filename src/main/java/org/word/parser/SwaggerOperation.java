@@ -0,0 +1,55 @@
+package org.word.parser;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个请求路径的原始信息，每个路径只保留第一种请求方式
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class SwaggerOperation {
+
+    /**
+     * 请求路径
+     */
+    private String url;
+
+    /**
+     * 请求方式，类似为 get,post,delete,put 这样
+     */
+    private String requestType;
+
+    /**
+     * 大标题（类说明），取第一个 tag
+     */
+    private String title;
+
+    /**
+     * 方法说明
+     */
+    private String summary;
+
+    /**
+     * 请求参数格式
+     */
+    private List<String> consumes;
+
+    /**
+     * 返回参数格式
+     */
+    private List<String> produces;
+
+    /**
+     * 请求参数
+     */
+    private List<SwaggerParameter> parameters;
+
+    /**
+     * 按状态码的返回，保持文档中的顺序
+     */
+    private Map<String, SwaggerResponse> responses;
+}
@@ -0,0 +1,30 @@
+package org.word.parser;
+
+import lombok.Data;
+
+/**
+ * 接口的单个请求参数
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class SwaggerParameter {
+
+    private String name;
+
+    /**
+     * 参数位置：query、path、header、formData、body
+     */
+    private String in;
+
+    private String type;
+
+    private boolean required;
+
+    private String description;
+
+    /**
+     * in 为 body 时的请求体
+     */
+    private SwaggerSchema schema;
+}
@@ -0,0 +1,522 @@
+package org.word.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.lang3.StringUtils;
+import org.word.model.ModelAttr;
+import org.word.model.SpecIndex;
+import org.word.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 Jackson JsonParser 的流式 Swagger 解析器
+ * <p>
+ * 直接从输入流读取 definitions 和 paths 到模型对象，不需要的子树直接跳过，
+ * 不再先把整个文档读成 String 和 Map。
+ *
+ * @author XiuYin.Cui
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class SwaggerParser {
+
+    public static final String DEFINITION_PREFIX = "#/definitions/";
+
+    /**
+     * 是否合并重复的短字符串
+     */
+    private final boolean internSymbols;
+
+    private final ParseLimits limits;
+
+    public SwaggerParser() {
+        this(true);
+    }
+
+    /**
+     * @param internSymbols 为 false 时不使用字符串表，只用于对比内存占用
+     */
+    public SwaggerParser(boolean internSymbols) {
+        this(internSymbols, ParseLimits.NONE);
+    }
+
+    /**
+     * @param limits 超过时抛出 {@link SpecLimitException}
+     */
+    public SwaggerParser(boolean internSymbols, ParseLimits limits) {
+        this.internSymbols = internSymbols;
+        this.limits = limits;
+    }
+
+    public SwaggerSpec parse(InputStream in) throws IOException {
+        return parse(in, OperationFilter.ALL);
+    }
+
+    /**
+     * @param filter 不满足的接口在解析时直接跳过；definitions 仍然全部解析，保证引用完整
+     */
+    public SwaggerSpec parse(InputStream in, OperationFilter filter) throws IOException {
+        SwaggerSpec spec = new SwaggerSpec();
+        SymbolTable symbols = internSymbols ? new SymbolTable() : SymbolTable.disabled();
+        try (JsonParser parser = createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("swagger json must be an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "info":
+                        spec.setInfo(parser.readValueAs(Map.class));
+                        break;
+                    case "definitions":
+                        parseDefinitions(parser, spec.getDefinitions(), symbols);
+                        break;
+                    case "paths":
+                        parsePaths(parser, spec.getOperations(), symbols, filter, false);
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+        }
+        spec.setIndex(new DefinitionIndex(spec.getDefinitions(), symbols));
+        return spec;
+    }
+
+    /**
+     * 只读取 info、每个接口的 tags 和 definitions 的数量，其余内容跳过，不建立模型和索引
+     *
+     * @param filter 只统计满足条件的接口
+     */
+    public SpecIndex index(InputStream in, OperationFilter filter) throws IOException {
+        SpecIndex index = new SpecIndex();
+        List<SwaggerOperation> operations = new ArrayList<>();
+        SymbolTable symbols = internSymbols ? new SymbolTable() : SymbolTable.disabled();
+        try (JsonParser parser = createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("swagger json must be an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "info":
+                        index.setInfo(parser.readValueAs(Map.class));
+                        break;
+                    case "definitions":
+                        index.setDefinitions(countFields(parser));
+                        break;
+                    case "paths":
+                        parsePaths(parser, operations, symbols, filter, true);
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+        }
+        for (SwaggerOperation operation : operations) {
+            index.getTags().merge(operation.getTitle(), 1, Integer::sum);
+        }
+        index.setOperations(operations.size());
+        return index;
+    }
+
+    private JsonParser createParser(InputStream in) throws IOException {
+        JsonParser parser = JsonUtils.createParser(in);
+        return limits.getMaxDepth() > 0 ? new DepthLimitedParser(parser, limits.getMaxDepth()) : parser;
+    }
+
+    private int countFields(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return 0;
+        }
+        int count = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+            limits.checkDefinitions(++count);
+        }
+        return count;
+    }
+
+    /**
+     * 解析 Definition，没有 properties 的模型不收录
+     */
+    private void parseDefinitions(JsonParser parser, Map<String, ModelAttr> definitinMap, SymbolTable symbols) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        int count = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            limits.checkDefinitions(++count);
+            String modeName = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String title = null;
+            String description = null;
+            List<ModelAttr> attrList = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "title":
+                        title = parser.getValueAsString();
+                        break;
+                    case "description":
+                        description = parser.getValueAsString();
+                        break;
+                    case "properties":
+                        attrList = parseProperties(parser, symbols);
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            if (attrList == null) {
+                continue;
+            }
+            ModelAttr modeAttr = new ModelAttr();
+            modeAttr.setClassName(title == null ? "" : symbols.intern(title));
+            modeAttr.setDescription(description == null ? "" : symbols.intern(description));
+            // 定义被所有接口共享，建好后不再修改
+            modeAttr.setProperties(Collections.unmodifiableList(attrList));
+            definitinMap.put(DEFINITION_PREFIX + modeName, modeAttr);
+        }
+    }
+
+    private List<ModelAttr> parseProperties(JsonParser parser, SymbolTable symbols) throws IOException {
+        List<ModelAttr> attrList = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return attrList;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            ModelAttr modeAttr = new ModelAttr();
+            modeAttr.setName(parser.getCurrentName());
+            String type = null;
+            String format = null;
+            String description = null;
+            String ref = null;
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "type":
+                            type = parser.getValueAsString();
+                            break;
+                        case "format":
+                            format = parser.getValueAsString();
+                            break;
+                        case "description":
+                            description = parser.getValueAsString();
+                            break;
+                        case "$ref":
+                            ref = parser.getValueAsString();
+                            break;
+                        case "items":
+                            ref = readRef(parser);
+                            break;
+                        default:
+                            parser.skipChildren();
+                            break;
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            modeAttr.setType(StringUtils.defaultIfBlank(symbols.type(type, format), "object"));
+            modeAttr.setDescription(symbols.intern(description));
+            modeAttr.setRef(symbols.intern(ref));
+            modeAttr.setProperties(Collections.emptyList());
+            attrList.add(modeAttr);
+        }
+        return attrList;
+    }
+
+    /**
+     * 解析 paths，每个路径只解析第一种满足筛选条件的请求方式，其余满足条件的请求方式只记录名称。
+     * 每个路径下的每种请求方式计为一个接口，不满足筛选条件的也计算在内
+     *
+     * @param outline 只读取 tags，用于统计
+     */
+    private void parsePaths(JsonParser parser, List<SwaggerOperation> operations, SymbolTable symbols,
+                            OperationFilter filter, boolean outline) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        int count = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String url = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            boolean matches = filter.matchesPath(url);
+            SwaggerOperation operation = null;
+            List<String> requestTypes = new ArrayList<>(4);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String method = parser.getCurrentName();
+                parser.nextToken();
+                if (isOperation(method)) {
+                    limits.checkOperations(++count);
+                }
+                if (!matches || !filter.matchesMethod(method)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                requestTypes.add(method);
+                if (operation == null && parser.currentToken() == JsonToken.START_OBJECT) {
+                    operation = parseOperation(parser, symbols, filter, outline);
+                    if (operation == null) {
+                        // 大标题不满足条件的请求方式不记录
+                        requestTypes.remove(requestTypes.size() - 1);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (operation == null) {
+                continue;
+            }
+            operation.setUrl(url);
+            operation.setRequestType(symbols.join(requestTypes));
+            operations.add(operation);
+        }
+    }
+
+    /**
+     * 路径下除请求方式外还可以有公共的 parameters、$ref 和 x- 扩展字段
+     */
+    private static boolean isOperation(String field) {
+        return !"parameters".equals(field) && !field.startsWith("$") && !field.startsWith("x-");
+    }
+
+    /**
+     * @return 大标题不满足筛选条件时为 null，tags 之后的字段直接跳过
+     */
+    private SwaggerOperation parseOperation(JsonParser parser, SymbolTable symbols, OperationFilter filter, boolean outline) throws IOException {
+        SwaggerOperation operation = new SwaggerOperation();
+        Object summary = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (outline && !"tags".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case "tags":
+                    List<String> tags = readStringList(parser);
+                    operation.setTitle(tags.isEmpty() ? null : symbols.intern(tags.get(0)));
+                    if (!filter.matchesTag(operation.getTitle())) {
+                        skipFields(parser);
+                        return null;
+                    }
+                    break;
+                case "summary":
+                    summary = parser.getValueAsString();
+                    break;
+                case "consumes":
+                    operation.setConsumes(symbols.list(readStringList(parser)));
+                    break;
+                case "produces":
+                    operation.setProduces(symbols.list(readStringList(parser)));
+                    break;
+                case "parameters":
+                    operation.setParameters(parseParameters(parser, symbols));
+                    break;
+                case "responses":
+                    operation.setResponses(parseResponses(parser, symbols));
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        if (!filter.matchesTag(operation.getTitle())) {
+            return null;
+        }
+        operation.setTitle(String.valueOf(operation.getTitle()));
+        operation.setSummary(String.valueOf(summary));
+        return operation;
+    }
+
+    /**
+     * 逐个字段读取请求参数，不再先读成 Map
+     */
+    private List<SwaggerParameter> parseParameters(JsonParser parser, SymbolTable symbols) throws IOException {
+        List<SwaggerParameter> parameters = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return parameters;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            SwaggerParameter parameter = new SwaggerParameter();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name":
+                        parameter.setName(symbols.intern(parser.getValueAsString()));
+                        break;
+                    case "in":
+                        parameter.setIn(symbols.intern(parser.getValueAsString()));
+                        break;
+                    case "type":
+                        parameter.setType(symbols.intern(parser.getValueAsString()));
+                        break;
+                    case "required":
+                        parameter.setRequired(parser.getValueAsBoolean());
+                        break;
+                    case "description":
+                        parameter.setDescription(symbols.intern(parser.getValueAsString()));
+                        break;
+                    case "schema":
+                        parameter.setSchema(parseSchema(parser, symbols));
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            parameters.add(parameter);
+        }
+        return parameters;
+    }
+
+    /**
+     * 按状态码读取返回，只保留说明和返回体
+     */
+    private Map<String, SwaggerResponse> parseResponses(JsonParser parser, SymbolTable symbols) throws IOException {
+        Map<String, SwaggerResponse> responses = new LinkedHashMap<>();
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return responses;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String code = symbols.intern(parser.getCurrentName());
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            SwaggerResponse response = new SwaggerResponse();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "description":
+                        response.setDescription(symbols.intern(parser.getValueAsString()));
+                        break;
+                    case "schema":
+                        response.setSchema(parseSchema(parser, symbols));
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            responses.put(code, response);
+        }
+        return responses;
+    }
+
+    /**
+     * @return 不是对象时为 null
+     */
+    private SwaggerSchema parseSchema(JsonParser parser, SymbolTable symbols) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        SwaggerSchema schema = new SwaggerSchema();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "type":
+                    schema.setType(symbols.intern(parser.getValueAsString()));
+                    break;
+                case "$ref":
+                    schema.setRef(symbols.intern(parser.getValueAsString()));
+                    break;
+                case "items":
+                    schema.setItemsRef(symbols.intern(readRef(parser)));
+                    break;
+                case "originalRef":
+                    schema.setOriginalRef(symbols.intern(parser.getValueAsString()));
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * 跳过当前对象剩余的字段，停在对象结束处
+     */
+    private void skipFields(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * 读取对象中的 $ref，其他字段跳过
+     */
+    private String readRef(JsonParser parser) throws IOException {
+        String ref = null;
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("$ref".equals(field)) {
+                ref = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return ref;
+    }
+
+    private List<String> readStringList(JsonParser parser) throws IOException {
+        List<String> list = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return list;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken().isScalarValue()) {
+                list.add(parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return list;
+    }
+}
@@ -0,0 +1,19 @@
+package org.word.parser;
+
+import lombok.Data;
+
+/**
+ * 接口单个状态码的返回
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class SwaggerResponse {
+
+    private String description;
+
+    /**
+     * 返回体，没有时为 null
+     */
+    private SwaggerSchema schema;
+}
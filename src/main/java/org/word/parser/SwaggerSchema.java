@@ -0,0 +1,42 @@
+package org.word.parser;
+
+import lombok.Data;
+
+/**
+ * 参数和返回体的 schema，只保留转换用到的字段
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class SwaggerSchema {
+
+    /**
+     * 类型，引用模型时通常为空
+     */
+    private String type;
+
+    /**
+     * 引用的模型，类似 #/definitions/User
+     */
+    private String ref;
+
+    /**
+     * 数组元素引用的模型
+     */
+    private String itemsRef;
+
+    /**
+     * springfox 生成的原始模型名
+     */
+    private String originalRef;
+
+    /**
+     * 对象引用的模型，数组时为元素引用的模型
+     */
+    public String modelRef() {
+        if (ref != null) {
+            return ref;
+        }
+        return "array".equals(type) ? itemsRef : null;
+    }
+}
@@ -0,0 +1,38 @@
+package org.word.parser;
+
+import lombok.Data;
+import org.word.model.ModelAttr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式解析后的 Swagger 文档，只保留生成文档需要的部分
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class SwaggerSpec {
+
+    /**
+     * 文档信息（title、version 等）
+     */
+    private Map<String, Object> info = new HashMap<>();
+
+    /**
+     * 模型定义，key 为 #/definitions/xxx
+     */
+    private Map<String, ModelAttr> definitions = new HashMap<>(256);
+
+    /**
+     * 接口列表，保持 paths 中的顺序
+     */
+    private List<SwaggerOperation> operations = new ArrayList<>();
+
+    /**
+     * definitions 的引用索引，解析结束时建立
+     */
+    private DefinitionIndex index = DefinitionIndex.empty();
+}
@@ -0,0 +1,124 @@
+package org.word.parser;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一份文档内共享的字符串表：类型、格式、媒体类型、标签、引用名等重复出现的短字符串只保留一份，
+ * 显示用的拼接结果（type(format)、逗号连接的媒体类型、去掉前缀的模型名）也只计算一次。
+ * <p>
+ * 解析时建立，封装接口时并发读取，线程安全。
+ *
+ * @author XiuYin.Cui
+ */
+public class SymbolTable {
+
+    /**
+     * 超过这个长度的字符串（通常是说明文字）不收录
+     */
+    static final int MAX_SYMBOL_LENGTH = 64;
+
+    private static final SymbolTable DISABLED = new SymbolTable(false);
+
+    private final boolean enabled;
+
+    private final Map<String, String> symbols = new ConcurrentHashMap<>(1024);
+
+    private final Map<String, Map<String, String>> types = new ConcurrentHashMap<>();
+
+    private final Map<List<String>, List<String>> lists = new ConcurrentHashMap<>();
+
+    private final Map<List<String>, String> joined = new ConcurrentHashMap<>();
+
+    private final Map<String, String> displayNames = new ConcurrentHashMap<>();
+
+    public SymbolTable() {
+        this(true);
+    }
+
+    private SymbolTable(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 不做任何合并，每次都生成新的字符串，用于对比内存占用
+     */
+    public static SymbolTable disabled() {
+        return DISABLED;
+    }
+
+    public String intern(String value) {
+        if (!enabled || value == null || value.length() > MAX_SYMBOL_LENGTH) {
+            return value;
+        }
+        String symbol = symbols.putIfAbsent(value, value);
+        return symbol == null ? value : symbol;
+    }
+
+    /**
+     * 属性类型的显示形式，有 format 时为 type(format)
+     */
+    public String type(String type, String format) {
+        if (format == null) {
+            return intern(type);
+        }
+        if (!enabled) {
+            return type + "(" + format + ")";
+        }
+        Map<String, String> byFormat = types.computeIfAbsent(intern(String.valueOf(type)), key -> new ConcurrentHashMap<>());
+        return byFormat.computeIfAbsent(format, key -> intern(type + "(" + format + ")"));
+    }
+
+    /**
+     * 相同内容的字符串列表（consumes、produces、tags）共用一个只读列表
+     */
+    public List<String> list(List<String> values) {
+        if (!enabled) {
+            return values;
+        }
+        for (ListIterator<String> it = values.listIterator(); it.hasNext(); ) {
+            it.set(intern(it.next()));
+        }
+        List<String> canonical = Collections.unmodifiableList(values);
+        List<String> previous = lists.putIfAbsent(values, canonical);
+        return previous == null ? canonical : previous;
+    }
+
+    /**
+     * 逗号连接，例如 consumes 的显示形式
+     */
+    public String join(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return StringUtils.EMPTY;
+        }
+        if (!enabled) {
+            return StringUtils.join(values, ",");
+        }
+        return joined.computeIfAbsent(values, key -> intern(StringUtils.join(key, ",")));
+    }
+
+    /**
+     * 去掉 #/definitions/ 前缀的模型名，不是引用时原样返回
+     */
+    public String displayName(String ref) {
+        if (ref == null || !ref.startsWith(SwaggerParser.DEFINITION_PREFIX)) {
+            return intern(ref);
+        }
+        if (!enabled) {
+            return ref.substring(SwaggerParser.DEFINITION_PREFIX.length());
+        }
+        return displayNames.computeIfAbsent(ref, key -> intern(key.substring(SwaggerParser.DEFINITION_PREFIX.length())));
+    }
+
+    /**
+     * 表中字符串的个数
+     */
+    public int size() {
+        return symbols.size();
+    }
+}
@@ -0,0 +1,100 @@
+package org.word.parser;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Springfox 泛型类名解析后的类型树，例如 Result«List«UserDto»» 解析为 Result -> List -> UserDto
+ *
+ * @author XiuYin.Cui
+ */
+@Data
+public class TypeName {
+
+    private static final char OPEN = '«';
+
+    private static final char CLOSE = '»';
+
+    private static final char SEPARATOR = ',';
+
+    private final String name;
+
+    private final List<TypeName> arguments;
+
+    /**
+     * 解析类名，格式不完整时剩余部分按普通名称处理
+     * @param text
+     * @return
+     */
+    public static TypeName parse(String text) {
+        int[] pos = {0};
+        return parse(text, pos);
+    }
+
+    private static TypeName parse(String text, int[] pos) {
+        int start = pos[0];
+        while (pos[0] < text.length()) {
+            char c = text.charAt(pos[0]);
+            if (c == OPEN || c == CLOSE || c == SEPARATOR) {
+                break;
+            }
+            pos[0]++;
+        }
+        String name = text.substring(start, pos[0]);
+        if (pos[0] >= text.length() || text.charAt(pos[0]) != OPEN) {
+            return new TypeName(name, Collections.emptyList());
+        }
+        List<TypeName> arguments = new ArrayList<>(2);
+        do {
+            pos[0]++;
+            arguments.add(parse(text, pos));
+        } while (pos[0] < text.length() && text.charAt(pos[0]) == SEPARATOR);
+        if (pos[0] < text.length() && text.charAt(pos[0]) == CLOSE) {
+            pos[0]++;
+        }
+        return new TypeName(name, Collections.unmodifiableList(arguments));
+    }
+
+    public boolean isGeneric() {
+        return !arguments.isEmpty();
+    }
+
+    /**
+     * 最后一个泛型参数，Result«UserDto» 中的 UserDto
+     * @return
+     */
+    public TypeName lastArgument() {
+        return arguments.isEmpty() ? null : arguments.get(arguments.size() - 1);
+    }
+
+    /**
+     * 包装类型中实际承载的数据类型，最多拆两层：
+     * Result«UserDto» 为 UserDto，Result«List«UserDto»» 也为 UserDto，不是泛型时为 null
+     * @return
+     */
+    public TypeName payload() {
+        TypeName payload = lastArgument();
+        if (payload != null && payload.isGeneric()) {
+            payload = payload.lastArgument();
+        }
+        return payload;
+    }
+
+    @Override
+    public String toString() {
+        if (arguments.isEmpty()) {
+            return name;
+        }
+        StringBuilder sb = new StringBuilder(name).append(OPEN);
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(arguments.get(i));
+        }
+        return sb.append(CLOSE).toString();
+    }
+}
@@ -0,0 +1,22 @@
+package org.word.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 批量转换
+ *
+ * @author XiuYin.Cui
+ */
+public interface BatchService {
+
+    /**
+     * 并发转换多个 swagger 文档，按完成顺序写入 zip，失败的文档写入对应的 .error.txt
+     *
+     * @param urls   资源地址
+     * @param format {@link RenderService#FORMAT_DOC} 或 {@link RenderService#FORMAT_DOCX}
+     * @param out    输出流，结束时写完 zip 目录但不关闭
+     */
+    void zip(List<String> urls, String format, OutputStream out) throws IOException;
+}
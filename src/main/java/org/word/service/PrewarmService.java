@@ -0,0 +1,25 @@
+package org.word.service;
+
+import org.word.model.PrewarmStatus;
+
+import java.util.List;
+
+/**
+ * 后台预热配置的 swagger 地址
+ *
+ * @author XiuYin.Cui
+ */
+public interface PrewarmService {
+
+    /**
+     * 各地址的刷新情况，按配置顺序
+     */
+    List<PrewarmStatus> status();
+
+    /**
+     * 在预热线程池中立即刷新一次，之后按间隔继续
+     *
+     * @return 不是配置的地址时为 false
+     */
+    boolean refreshNow(String url);
+}
@@ -0,0 +1,42 @@
+package org.word.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * 文档渲染
+ *
+ * @author XiuYin.Cui
+ */
+public interface RenderService {
+
+    /**
+     * html 另存的 doc，兼容旧版本
+     */
+    String FORMAT_DOC = "doc";
+
+    /**
+     * Word 2007+ 的 docx
+     */
+    String FORMAT_DOCX = "docx";
+
+    /**
+     * 把 word.html 以 UTF-8 直接渲染到输出流，文档内容和模板都没有变化时直接写出缓存
+     *
+     * @param result   tableList 的结果
+     * @param url      资源地址
+     * @param download 是否显示下载按钮
+     * @param out      输出流，不会被关闭
+     */
+    void render(Map<String, Object> result, String url, Integer download, OutputStream out) throws IOException;
+
+    /**
+     * 直接生成 docx 写入输出流，文档内容没有变化时直接写出缓存
+     *
+     * @param result tableList 的结果
+     * @param url    资源地址
+     * @param out    输出流，不会被关闭
+     */
+    void renderDocx(Map<String, Object> result, String url, OutputStream out) throws IOException;
+}
@@ -1,11 +1,75 @@
 package org.word.service;
 
+import org.word.model.SpecIndex;
+import org.word.parser.OperationFilter;
+import org.word.source.SpecSource;
+import org.word.utils.MemoryBudget;
+
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by XiuYin.Cui on 2018/1/12.
  */
 public interface WordService {
 
-    Map<String,Object> tableList(String swaggerUrl);
+    /**
+     * tableList 结果中 swagger 原文的 SHA-256 摘要
+     */
+    String SPEC_HASH = "specHash";
+
+    /**
+     * @param swaggerUrl  http(s) 地址或 file: 路径
+     * @param reservation {@link MemoryBudget#open()} 的预留，读取时才追加，调用方在渲染结束后关闭
+     * @throws IllegalArgumentException 不支持的地址
+     */
+    Map<String,Object> tableList(String swaggerUrl, MemoryBudget.Reservation reservation);
+
+    /**
+     * 只转换满足筛选条件的接口，结果不记入历史版本
+     *
+     * @param swaggerUrl http(s) 地址或 file: 路径
+     * @param filter      解析时筛选接口
+     * @param reservation {@link MemoryBudget#open()} 的预留，读取时才追加，调用方在渲染结束后关闭
+     * @throws IllegalArgumentException 不支持的地址
+     */
+    Map<String,Object> tableList(String swaggerUrl, OperationFilter filter, MemoryBudget.Reservation reservation);
+
+    /**
+     * 在转换线程池中获取并转换，等待上游时不占用调用线程；同一地址、同一筛选条件正在进行的转换直接共用
+     *
+     * @param swaggerUrl http(s) 地址或 file: 路径
+     * @param filter      解析时筛选接口
+     * @param reservation {@link MemoryBudget#open()} 的预留，合并到其他请求的转换时不追加
+     * @throws IllegalArgumentException 不支持的地址
+     * @throws java.util.concurrent.RejectedExecutionException 转换线程池已满
+     */
+    CompletableFuture<Map<String,Object>> tableListAsync(String swaggerUrl, OperationFilter filter, MemoryBudget.Reservation reservation);
+
+    /**
+     * 文档目录，只读取 tags，不封装接口
+     *
+     * @param swaggerUrl http(s) 地址或 file: 路径
+     * @param filter      只统计满足条件的接口
+     * @param reservation {@link MemoryBudget#open()} 的预留，读取时才追加，调用方在渲染结束后关闭
+     * @return 获取或解析失败时为 null
+     * @throws IllegalArgumentException 不支持的地址
+     */
+    SpecIndex index(String swaggerUrl, OperationFilter filter, MemoryBudget.Reservation reservation);
+
+    /**
+     * 立即带校验头重新获取并转换，结果放入缓存，用于后台预热；失败时抛出，不返回上一次的结果
+     *
+     * @param swaggerUrl  http(s) 地址或 file: 路径
+     * @param reservation {@link MemoryBudget#open()} 的预留，读取时才追加，调用方在渲染结束后关闭
+     * @throws IOException 获取或解析失败
+     * @throws IllegalArgumentException 不支持的地址
+     */
+    Map<String,Object> refresh(String swaggerUrl, MemoryBudget.Reservation reservation) throws IOException;
+
+    /**
+     * 从任意来源读取并转换，解析缓存和历史版本以 {@link SpecSource#getLocation()} 为 key，不共享的来源（上传）不记录历史版本
+     */
+    Map<String,Object> tableList(SpecSource source, MemoryBudget.Reservation reservation);
 }
@@ -0,0 +1,192 @@
+package org.word.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.word.service.BatchService;
+import org.word.service.RenderService;
+import org.word.service.WordService;
+import org.word.utils.MemoryBudget;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 每个文档在工作线程中渲染到临时文件，再按完成顺序复制到 zip，堆内存不随文档大小增长，
+ * 渲染中途失败也不会在 zip 中留下写了一半的条目
+ *
+ * @author XiuYin.Cui
+ */
+@Slf4j
+@Service
+public class BatchServiceImpl implements BatchService {
+
+    @Autowired
+    private WordService tableService;
+
+    @Autowired
+    private MemoryBudget memoryBudget;
+
+    @Autowired
+    private RenderService renderService;
+
+    @Autowired
+    @Qualifier("batchExecutor")
+    private Executor batchExecutor;
+
+    @Override
+    public void zip(List<String> urls, String format, OutputStream out) throws IOException {
+        boolean docx = RenderService.FORMAT_DOCX.equalsIgnoreCase(format);
+        ZipOutputStream zip = new ZipOutputStream(out);
+        CompletionService<BatchEntry> completion = new ExecutorCompletionService<>(batchExecutor);
+        List<Future<BatchEntry>> futures = new ArrayList<>(urls.size());
+        try {
+            for (int i = 0; i < urls.size(); i++) {
+                String url = urls.get(i);
+                String name = entryName(i, url);
+                try {
+                    futures.add(completion.submit(() -> convert(name, url, docx)));
+                } catch (RejectedExecutionException e) {
+                    log.warn("batch convert rejected: {}", url);
+                    write(zip, error(name, url, e));
+                }
+            }
+            // 谁先完成谁先写入，总耗时接近最慢的一个
+            for (int i = 0; i < futures.size(); i++) {
+                write(zip, completion.take().get());
+            }
+            zip.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("batch interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            // 客户端断开等异常情况下，不再继续未完成的转换，已完成但没有写入的临时文件删除
+            for (Future<BatchEntry> future : futures) {
+                if (!future.cancel(true) && !future.isCancelled()) {
+                    discard(future);
+                }
+            }
+        }
+    }
+
+    private BatchEntry convert(String name, String url, boolean docx) {
+        Path file = null;
+        try (MemoryBudget.Reservation reservation = memoryBudget.open()) {
+            Map<String, Object> result = tableService.tableList(url, reservation);
+            if (result.isEmpty()) {
+                return error(name, url, new IllegalStateException("failed to fetch or parse swagger json"));
+            }
+            String extension = docx ? ".docx" : ".doc";
+            file = Files.createTempFile("swagger2word-batch-", extension);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                if (docx) {
+                    renderService.renderDocx(result, url, out);
+                } else {
+                    renderService.render(result, url, 0, out);
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                // 已被取消，结果不会再写入
+                throw new InterruptedIOException("batch cancelled");
+            }
+            return new BatchEntry(name + extension, file, null);
+        } catch (Exception e) {
+            log.warn("batch convert failed: {}", url, e);
+            delete(file);
+            return error(name, url, e);
+        }
+    }
+
+    /**
+     * 只写出异常类型和信息，堆栈只记录在日志中
+     */
+    private BatchEntry error(String name, String url, Exception e) {
+        String message = url + "\n\n" + e.getClass().getSimpleName()
+                + (e.getMessage() == null ? "" : ": " + e.getMessage()) + "\n";
+        return new BatchEntry(name + ".error.txt", null, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void write(ZipOutputStream zip, BatchEntry entry) throws IOException {
+        zip.putNextEntry(new ZipEntry(entry.name));
+        if (entry.file != null) {
+            try {
+                Files.copy(entry.file, zip);
+            } finally {
+                delete(entry.file);
+            }
+        } else {
+            zip.write(entry.bytes);
+        }
+        zip.closeEntry();
+        zip.flush();
+    }
+
+    private void discard(Future<BatchEntry> future) {
+        try {
+            delete(future.get().file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // convert 不抛出异常
+        }
+    }
+
+    private static void delete(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("delete {} failed", file, e);
+        }
+    }
+
+    /**
+     * 序号 + 去掉协议后的地址，保证文件名唯一且可读
+     */
+    private String entryName(int index, String url) {
+        String name = url.replaceFirst("^[a-zA-Z]+://", "").replaceAll("[^a-zA-Z0-9._-]+", "_");
+        if (name.length() > 100) {
+            name = name.substring(0, 100);
+        }
+        return String.format("%02d-%s", index + 1, name);
+    }
+
+    /**
+     * 渲染好的文档在临时文件 file 中，错误信息在 bytes 中
+     */
+    private static class BatchEntry {
+
+        private final String name;
+
+        private final Path file;
+
+        private final byte[] bytes;
+
+        BatchEntry(String name, Path file, byte[] bytes) {
+            this.name = name;
+            this.file = file;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package org.word.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.word.config.PrewarmProperties;
+import org.word.metrics.ConversionMetrics;
+import org.word.model.PrewarmStatus;
+import org.word.service.PrewarmService;
+import org.word.service.RenderService;
+import org.word.service.WordService;
+import org.word.utils.MemoryBudget;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 每个地址单独调度：刷新完成后按间隔加随机抖动安排下一次，同时刷新的地址数由预热线程池大小限制。
+ * 刷新时带校验头重新获取，没有变化时只是一次 304，随后把配置的格式渲染到缓存中。
+ *
+ * @author XiuYin.Cui
+ */
+@Slf4j
+@Service
+public class PrewarmServiceImpl implements PrewarmService {
+
+    private static final String FORMAT_HTML = "html";
+
+    /**
+     * 渲染结果只用于填充缓存
+     */
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Autowired
+    private PrewarmProperties properties;
+
+    @Autowired
+    private WordService wordService;
+
+    @Autowired
+    private MemoryBudget memoryBudget;
+
+    @Autowired
+    private RenderService renderService;
+
+    @Autowired
+    private ConversionMetrics metrics;
+
+    @Autowired
+    @Qualifier("prewarmScheduler")
+    private TaskScheduler scheduler;
+
+    /**
+     * 配置的地址，启动后不再变化
+     */
+    private final Map<String, Target> targets = new LinkedHashMap<>();
+
+    private final List<String> formats = new ArrayList<>();
+
+    private long startTime;
+
+    @PostConstruct
+    public void init() {
+        startTime = System.currentTimeMillis();
+        for (String format : properties.getFormats()) {
+            String name = format.trim().toLowerCase(Locale.ROOT);
+            if (FORMAT_HTML.equals(name) || RenderService.FORMAT_DOC.equals(name) || RenderService.FORMAT_DOCX.equals(name)) {
+                formats.add(name);
+            } else {
+                log.warn("unknown prewarm format {}", format);
+            }
+        }
+        for (String url : properties.getUrls()) {
+            if (StringUtils.isNotBlank(url)) {
+                targets.putIfAbsent(url.trim(), new Target(url.trim()));
+            }
+        }
+        for (Target target : targets.values()) {
+            metrics.prewarmLag(target.url, target, t -> t.lag(System.currentTimeMillis()) / 1000.0);
+        }
+    }
+
+    /**
+     * 启动完成后开始，第一次刷新在 jitter 内随机延迟，避免同时请求所有上游
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (targets.isEmpty()) {
+            return;
+        }
+        log.info("prewarm {} urls every {} ms", targets.size(), properties.getInterval());
+        for (Target target : targets.values()) {
+            schedule(target, random(properties.getJitter()));
+        }
+    }
+
+    @Override
+    public List<PrewarmStatus> status() {
+        long now = System.currentTimeMillis();
+        List<PrewarmStatus> list = new ArrayList<>(targets.size());
+        for (Target target : targets.values()) {
+            list.add(target.snapshot(now));
+        }
+        return list;
+    }
+
+    @Override
+    public boolean refreshNow(String url) {
+        Target target = url == null ? null : targets.get(url.trim());
+        if (target == null) {
+            return false;
+        }
+        schedule(target, 0);
+        return true;
+    }
+
+    private void schedule(Target target, long delay) {
+        synchronized (target) {
+            if (target.future != null) {
+                target.future.cancel(false);
+            }
+            target.nextRefresh = System.currentTimeMillis() + delay;
+            target.future = scheduler.schedule(() -> refresh(target), new Date(target.nextRefresh));
+        }
+    }
+
+    /**
+     * 获取、转换并渲染配置的格式，完成后安排下一次；同一地址正在刷新时直接返回，由正在进行的刷新安排下一次
+     */
+    private void refresh(Target target) {
+        if (!target.running.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized (target) {
+            target.lastAttempt = System.currentTimeMillis();
+        }
+        try {
+            Map<String, Object> result;
+            try (MemoryBudget.Reservation reservation = memoryBudget.open()) {
+                result = wordService.refresh(target.url, reservation);
+                for (String format : formats) {
+                    render(result, target.url, format);
+                }
+            }
+            synchronized (target) {
+                target.lastSuccess = System.currentTimeMillis();
+                target.specHash = (String) result.get(WordService.SPEC_HASH);
+                target.consecutiveFailures = 0;
+            }
+        } catch (Exception e) {
+            log.warn("prewarm {} failed: {}", target.url, e.toString());
+            metrics.prewarmFailure(target.url, e);
+            synchronized (target) {
+                target.failures++;
+                target.consecutiveFailures++;
+                target.lastError = e.toString();
+            }
+        } finally {
+            long nanos = System.nanoTime() - start;
+            metrics.recordPrewarm(target.url, nanos);
+            synchronized (target) {
+                target.duration = nanos / 1000000;
+            }
+            target.running.set(false);
+            schedule(target, Math.max(0, properties.getInterval() + random(2 * properties.getJitter()) - properties.getJitter()));
+        }
+    }
+
+    private void render(Map<String, Object> result, String url, String format) throws IOException {
+        switch (format) {
+            case FORMAT_HTML:
+                // 与 /toWord 默认的参数一致
+                renderService.render(result, url, 1, DISCARD);
+                break;
+            case RenderService.FORMAT_DOC:
+                renderService.render(result, url, 0, DISCARD);
+                break;
+            default:
+                renderService.renderDocx(result, url, DISCARD);
+                break;
+        }
+    }
+
+    private static long random(long bound) {
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+    }
+
+    /**
+     * 一个预热地址的状态，在 synchronized 块中读写
+     */
+    private class Target {
+
+        private final String url;
+
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        private ScheduledFuture<?> future;
+
+        private long lastAttempt;
+
+        private long lastSuccess;
+
+        private long duration;
+
+        private String specHash;
+
+        private long failures;
+
+        private int consecutiveFailures;
+
+        private String lastError;
+
+        private long nextRefresh;
+
+        Target(String url) {
+            this.url = url;
+        }
+
+        synchronized long lag(long now) {
+            return now - (lastSuccess > 0 ? lastSuccess : startTime);
+        }
+
+        synchronized PrewarmStatus snapshot(long now) {
+            PrewarmStatus status = new PrewarmStatus();
+            status.setUrl(url);
+            status.setLastAttempt(lastAttempt);
+            status.setLastSuccess(lastSuccess);
+            status.setLag(lag(now));
+            status.setDuration(duration);
+            status.setSpecHash(specHash);
+            status.setFailures(failures);
+            status.setConsecutiveFailures(consecutiveFailures);
+            status.setLastError(lastError);
+            status.setNextRefresh(nextRefresh);
+            return status;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package org.word.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import org.word.cache.DiskStore;
+import org.word.cache.RenderCache;
+import org.word.cache.SectionCache;
+import org.word.convert.DocxWriter;
+import org.word.convert.SpecConverter;
+import org.word.metrics.ConversionMetrics;
+import org.word.model.Table;
+import org.word.service.RenderService;
+import org.word.service.WordService;
+import org.word.utils.CountingOutputStream;
+import org.word.utils.HashUtils;
+import org.word.utils.IoUtils;
+import org.word.utils.SingleFlight;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author XiuYin.Cui
+ */
+@SuppressWarnings("unchecked")
+@Slf4j
+@Service
+public class RenderServiceImpl implements RenderService {
+
+    /**
+     * word.html 中分隔页头和页尾的占位，th:text 输出会被转义，不会与文档内容冲突
+     */
+    private static final String SECTION_MARKER = "<!--swagger2word:sections-->";
+
+    @Autowired
+    private ITemplateEngine templateEngine;
+
+    @Autowired
+    private RenderCache renderCache;
+
+    @Autowired
+    private SectionCache sectionCache;
+
+    @Autowired
+    private DiskStore diskStore;
+
+    @Autowired
+    private ConversionMetrics metrics;
+
+    /**
+     * 是否逐个大标题渲染并立即写出
+     */
+    @Value("${swagger.render.streaming:true}")
+    private boolean streaming;
+
+    private final DocxWriter docxWriter = new DocxWriter();
+
+    private final SingleFlight<String, ByteBuffer> inFlight = new SingleFlight<>();
+
+    /**
+     * 模板内容的摘要，模板变化后缓存自然失效
+     */
+    private String templateVersion;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:/templates/*.html");
+        Arrays.sort(resources, Comparator.comparing(Resource::getFilename));
+        MessageDigest digest = HashUtils.sha256();
+        byte[] buffer = new byte[8192];
+        for (Resource resource : resources) {
+            try (InputStream in = resource.getInputStream()) {
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, n);
+                }
+            }
+        }
+        templateVersion = HashUtils.toHex(digest.digest()).substring(0, 16);
+        log.info("template version {}", templateVersion);
+    }
+
+    @Override
+    public void render(Map<String, Object> result, String url, Integer download, OutputStream out) throws IOException {
+        renderCached(cacheKey(result, templateVersion + ":" + download, url), url, out, target -> {
+            Writer writer = new OutputStreamWriter(target, StandardCharsets.UTF_8);
+            if (streaming) {
+                renderSections(result, url, download, writer);
+            } else {
+                templateEngine.process("word", createContext(result, url, download), writer);
+            }
+            writer.flush();
+        });
+    }
+
+    @Override
+    public void renderDocx(Map<String, Object> result, String url, OutputStream out) throws IOException {
+        renderCached(cacheKey(result, FORMAT_DOCX + DocxWriter.VERSION, url), url, out, target -> docxWriter.write(result, target));
+    }
+
+    private String cacheKey(Map<String, Object> result, String variant, String url) {
+        Object specHash = result.get(WordService.SPEC_HASH);
+        return specHash == null ? null : specHash + ":" + variant + ":" + url;
+    }
+
+    /**
+     * 有缓存时直接写出，否则先渲染到堆外 buffer 并放入缓存，再写出到自己的响应。
+     * 同一份结果并发的渲染只执行一次，执行的请求和等待的请求都在渲染完成后各自从同一个 buffer 写出，
+     * 慢的客户端不会拖慢其他请求；结果超过单个上限时放弃留存，各自边渲染边写出。
+     */
+    private void renderCached(String key, String url, OutputStream out, RenderBody body) throws IOException {
+        if (key == null) {
+            render(url, out, body);
+            return;
+        }
+        ByteBuffer cached = renderCache.get(key);
+        if (cached == null) {
+            cached = restore(key);
+        }
+        if (cached == null) {
+            cached = inFlight.execute(key, () -> renderToCache(key, url, body),
+                    () -> metrics.coalesced(ConversionMetrics.COALESCED_RENDER, url));
+        }
+        if (cached == null) {
+            render(url, out, body);
+            return;
+        }
+        // 共用同一个 buffer，各自用独立的 position 写出
+        ByteBuffer view = cached.duplicate();
+        metrics.recordOutput(url, view.remaining());
+        IoUtils.write(view, out);
+    }
+
+    /**
+     * 边渲染边写出，不留存
+     */
+    private void render(String url, OutputStream out, RenderBody body) throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counter = new CountingOutputStream(out);
+        body.write(counter);
+        metrics.recordStage(ConversionMetrics.STAGE_RENDER, url, System.nanoTime() - start);
+        metrics.recordOutput(url, counter.getCount());
+    }
+
+    /**
+     * 只渲染到堆外 buffer，不写出到任何响应，放入内存缓存并异步保存到磁盘
+     *
+     * @return 留存的渲染结果（只读视图），超过单个上限时立即停止渲染，返回 null
+     */
+    private ByteBuffer renderToCache(String key, String url, RenderBody body) throws IOException {
+        long start = System.nanoTime();
+        CapturingOutputStream capture = new CapturingOutputStream(renderCache.getMaxEntryBytes());
+        try {
+            body.write(capture);
+        } catch (IOException | RuntimeException e) {
+            // 模板引擎会包装写出时的异常
+            if (capture.isOverflow()) {
+                return null;
+            }
+            throw e;
+        }
+        metrics.recordStage(ConversionMetrics.STAGE_RENDER, url, System.nanoTime() - start);
+        ByteBuffer buffer = capture.toBuffer();
+        renderCache.put(key, buffer);
+        diskStore.putAsync(DiskStore.renderKey(key), buffer);
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * 读取磁盘上保存的渲染结果并放回内存缓存，重启后不需要重新渲染
+     *
+     * @return 没有保存、超过单个上限或读取失败时为 null
+     */
+    private ByteBuffer restore(String key) {
+        DiskStore.Ref stored = diskStore.get(DiskStore.renderKey(key));
+        if (stored == null) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(stored.getPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > renderCache.getMaxEntryBytes()) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    return null;
+                }
+            }
+            buffer.flip();
+            renderCache.put(key, buffer);
+            return buffer.asReadOnlyBuffer();
+        } catch (IOException e) {
+            log.warn("restore {} failed", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 先写出页头，再逐个大标题渲染 word-section 并立即 flush，最后写出页尾
+     */
+    private void renderSections(Map<String, Object> result, String url, Integer download, Writer writer) throws IOException {
+        Context context = createContext(result, url, download);
+        context.setVariable("tableMap", Collections.emptyMap());
+        context.setVariable("sectionMarker", SECTION_MARKER);
+        String skeleton = templateEngine.process("word", context);
+        int index = skeleton.indexOf(SECTION_MARKER);
+        writer.write(skeleton, 0, index);
+        writer.flush();
+
+        Map<String, List<Table>> tableMap = (Map<String, List<Table>>) result.get("tableMap");
+        Map<String, String> sectionHashes = (Map<String, String>) result.get(SpecConverter.SECTION_HASHES);
+        if (tableMap != null) {
+            for (Map.Entry<String, List<Table>> section : tableMap.entrySet()) {
+                String hash = sectionHashes == null ? null : sectionHashes.get(section.getKey());
+                if (hash == null) {
+                    renderSection(section, writer);
+                } else {
+                    // 内容没变的大标题直接复用片段，不封装也不渲染
+                    String key = hash + ":" + templateVersion;
+                    String fragment = sectionCache.get(key);
+                    if (fragment == null) {
+                        StringWriter sectionWriter = new StringWriter(16 * 1024);
+                        renderSection(section, sectionWriter);
+                        fragment = sectionWriter.toString();
+                        sectionCache.put(key, fragment);
+                    }
+                    writer.write(fragment);
+                }
+                writer.flush();
+            }
+        }
+        int footer = index + SECTION_MARKER.length();
+        writer.write(skeleton, footer, skeleton.length() - footer);
+    }
+
+    private void renderSection(Map.Entry<String, List<Table>> section, Writer writer) {
+        Context context = new Context();
+        context.setVariable("tableMap", Collections.singletonMap(section.getKey(), section.getValue()));
+        templateEngine.process("word-section", context, writer);
+    }
+
+    private Context createContext(Map<String, Object> result, String url, Integer download) {
+        Context context = new Context();
+        context.setVariables(result);
+        context.setVariable("url", url);
+        context.setVariable("download", download);
+        return context;
+    }
+
+    private interface RenderBody {
+
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * 写入堆外内存，超过上限后放弃并抛出异常，停止渲染
+     */
+    private static class CapturingOutputStream extends OutputStream {
+
+        private final long limit;
+
+        private ByteBuffer copy = ByteBuffer.allocateDirect(64 * 1024);
+
+        CapturingOutputStream(long limit) {
+            this.limit = Math.min(limit, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureCapacity(1);
+            copy.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureCapacity(len);
+            copy.put(b, off, len);
+        }
+
+        boolean isOverflow() {
+            return copy == null;
+        }
+
+        ByteBuffer toBuffer() {
+            copy.flip();
+            return copy;
+        }
+
+        private void ensureCapacity(int length) throws IOException {
+            if (copy == null) {
+                throw new IOException("render output is larger than " + limit + " bytes");
+            }
+            if (copy.remaining() >= length) {
+                return;
+            }
+            long required = (long) copy.position() + length;
+            if (required > limit) {
+                copy = null;
+                throw new IOException("render output is larger than " + limit + " bytes");
+            }
+            ByteBuffer bigger = ByteBuffer.allocateDirect((int) Math.min(limit, Math.max(required, copy.capacity() * 2L)));
+            copy.flip();
+            bigger.put(copy);
+            copy = bigger;
+        }
+    }
+}
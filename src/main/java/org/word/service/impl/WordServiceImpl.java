@@ -1,491 +1,393 @@
 package org.word.service.impl;
 
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
-import org.springframework.web.client.RestTemplate;
-import org.word.model.ModelAttr;
-import org.word.model.Request;
-import org.word.model.Response;
-import org.word.model.Table;
+import org.word.cache.DiskStore;
+import org.word.cache.SpecCache;
+import org.word.cache.SpecCacheEntry;
+import org.word.cache.SpecHistory;
+import org.word.config.SpecLimitProperties;
+import org.word.convert.SpecConverter;
+import org.word.metrics.ConversionMetrics;
+import org.word.model.SpecIndex;
+import org.word.parser.OperationFilter;
+import org.word.parser.ParseLimits;
+import org.word.parser.SpecLimitException;
+import org.word.parser.SwaggerParser;
+import org.word.parser.SwaggerSpec;
 import org.word.service.WordService;
-import org.word.utils.JsonUtils;
-
+import org.word.source.LimitedInputStream;
+import org.word.source.SpecSource;
+import org.word.source.SpecSourceResolver;
+import org.word.utils.CountingInputStream;
+import org.word.utils.HashUtils;
+import org.word.utils.MemoryBudget;
+import org.word.utils.SingleFlight;
+import org.word.utils.TeeInputStream;
+
+import javax.annotation.PostConstruct;
 import java.io.IOException;
-import java.util.*;
-import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @Author XiuYin.Cui
  * @Date 2018/1/12
  **/
-@SuppressWarnings({"unchecked", "rawtypes"})
+@SuppressWarnings("unchecked")
 @Slf4j
 @Service
 public class WordServiceImpl implements WordService {
 
+    /**
+     * 目录结果在缓存中的 key
+     */
+    private static final String INDEX = "index";
+
     @Autowired
-    private RestTemplate restTemplate;
+    private SpecSourceResolver sourceResolver;
+
+    @Autowired
+    private SpecCache specCache;
+
+    @Autowired
+    private DiskStore diskStore;
+
+    @Autowired
+    private SpecHistory specHistory;
+
+    @Autowired
+    private ConversionMetrics metrics;
+
+    @Autowired
+    private SpecLimitProperties limits;
+
+    @Autowired
+    private MemoryBudget memoryBudget;
+
+    @Autowired
+    @Qualifier("conversionExecutor")
+    private Executor conversionExecutor;
+
+    @Autowired
+    @Qualifier("operationPool")
+    private ForkJoinPool operationPool;
+
+    /**
+     * 一组接口达到这个数量才并行封装
+     */
+    @Value("${swagger.parallel.threshold:32}")
+    private int parallelThreshold;
+
+    /**
+     * 示例中模型嵌套的最大层数
+     */
+    @Value("${swagger.example.max-depth:5}")
+    private int exampleMaxDepth;
+
+    /**
+     * 单个模型示例的最大长度，超过时减少嵌套层数
+     */
+    @Value("${swagger.example.max-length:16384}")
+    private int exampleMaxLength;
+
+    private SwaggerParser swaggerParser;
+
+    private final SingleFlight<String, Map<String, Object>> inFlight = new SingleFlight<>();
+
+    private SpecConverter specConverter;
+
+    @PostConstruct
+    public void init() {
+        swaggerParser = new SwaggerParser(true,
+                new ParseLimits(limits.getMaxDepth(), limits.getMaxOperations(), limits.getMaxDefinitions()));
+        specConverter = new SpecConverter(operationPool, parallelThreshold, exampleMaxDepth, exampleMaxLength);
+    }
 
     @Override
-    public Map<String, Object> tableList(String swaggerUrl) {
-        Map<String, Object> resultMap = new HashMap<>();
-        List<Table> result = new ArrayList<>();
-        try {
-            String jsonStr = restTemplate.getForObject(swaggerUrl, String.class);
-            // convert JSON string to Map
-            Map<String, Object> map = JsonUtils.readValue(jsonStr, HashMap.class);
-
-            //解析model
-            Map<String, ModelAttr> definitinMap = parseDefinitions(map);
-
-            //解析paths
-            Map<String, Map<String, Object>> paths = (Map<String, Map<String, Object>>) map.get("paths");
-            if (paths != null) {
-                Iterator<Map.Entry<String, Map<String, Object>>> it = paths.entrySet().iterator();
-                while (it.hasNext()) {
-                    Map.Entry<String, Map<String, Object>> path = it.next();
-
-                    Iterator<Map.Entry<String, Object>> it2 = path.getValue().entrySet().iterator();
-                    // 1.请求路径
-                    String url = path.getKey();
-
-                    // 2.请求方式，类似为 get,post,delete,put 这样
-                    String requestType = StringUtils.join(path.getValue().keySet(), ",");
-
-                    // 3. 不管有几种请求方式，都只解析第一种
-                    Map.Entry<String, Object> firstRequest = it2.next();
-                    Map<String, Object> content = (Map<String, Object>) firstRequest.getValue();
-
-                    // 4. 大标题（类说明）
-                    String title = String.valueOf(((List) content.get("tags")).get(0));
-
-                    // 5.小标题 （方法说明）
-                    String tag = String.valueOf(content.get("summary"));
-
-                    // 6.接口描述
-                    String description = String.valueOf(content.get("summary"));
-
-                    // 7.请求参数格式，类似于 multipart/form-data
-                    String requestForm = "";
-                    List<String> consumes = (List) content.get("consumes");
-                    if (consumes != null && consumes.size() > 0) {
-                        requestForm = StringUtils.join(consumes, ",");
-                    }
-
-                    // 8.返回参数格式，类似于 application/json
-                    String responseForm = "";
-                    List<String> produces = (List) content.get("produces");
-                    if (produces != null && produces.size() > 0) {
-                        responseForm = StringUtils.join(produces, ",");
-                    }
-
-                    // 9. 请求体
-                    List<LinkedHashMap> parameters = (ArrayList) content.get("parameters");
-
-                    // 10.返回体
-                    Map<String, Object> responses = (LinkedHashMap) content.get("responses");
-
-                    //封装Table
-                    Table table = new Table();
-
-                    table.setTitle(title);
-                    table.setUrl(url);
-                    table.setTag(tag);
-                    table.setDescription(description);
-                    table.setRequestForm(requestForm);
-                    table.setResponseForm(responseForm);
-                    table.setRequestType(requestType);
-                    table.setRequestList(processRequestList(parameters, definitinMap));
-                    table.setResponseList(processResponseCodeList(responses));
-
-                    // 取出来状态是200时的返回值
-                    Map<String, Object> obj = (Map<String, Object>) responses.get("200");
-                    if (obj != null && obj.get("schema") != null) {
-                        table.setModelAttr(processResponseModelAttrs(obj, definitinMap));
-                    }
-
-                    //示例
-                    table.setRequestParam(processRequestParam(table.getRequestList(), definitinMap));
-                    table.setResponseParam(processResponseParam(obj, definitinMap));
-
-                    result.add(table);
-                }
-            }
-            Map<String, List<Table>> tableMap = result.stream().parallel().collect(Collectors.groupingBy(Table::getTitle));
-            resultMap.put("tableMap", new TreeMap<>(tableMap));
-            resultMap.put("info", map.get("info"));
+    public Map<String, Object> tableList(String swaggerUrl, MemoryBudget.Reservation reservation) {
+        return tableList(sourceResolver.resolve(swaggerUrl), reservation);
+    }
 
-            log.debug(JsonUtils.writeJsonStr(resultMap));
-        } catch (Exception e) {
-            log.error("parse error", e);
+    @Override
+    public Map<String, Object> tableList(String swaggerUrl, OperationFilter filter, MemoryBudget.Reservation reservation) {
+        SpecSource source = sourceResolver.resolve(swaggerUrl);
+        if (filter.isEmpty()) {
+            return tableList(source, reservation);
         }
-        return resultMap;
+        String key = SpecCache.key(source.getLocation(), filter.toString());
+        return inFlight.execute(key, () -> load(source, filter, reservation),
+                () -> metrics.coalesced(ConversionMetrics.COALESCED_CONVERT, source.getLocation()));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> tableListAsync(String swaggerUrl, OperationFilter filter, MemoryBudget.Reservation reservation) {
+        SpecSource source = sourceResolver.resolve(swaggerUrl);
+        String location = source.getLocation();
+        return inFlight.submit(SpecCache.key(location, filter.toString()), () -> load(source, filter, reservation), conversionExecutor,
+                () -> metrics.coalesced(ConversionMetrics.COALESCED_CONVERT, location));
     }
 
     /**
-     * 处理请求参数列表
-     * @param parameters
-     * @return
+     * 同一地址并发的转换只执行一次，304 重新校验也只发一次请求
      */
-    private List<Request> processRequestList(List<LinkedHashMap> parameters, Map<String, ModelAttr> definitinMap) {
-        List<Request> requestList = new ArrayList<>();
-        if (!CollectionUtils.isEmpty(parameters)) {
-            for (Map<String, Object> param : parameters) {
-                Object in = param.get("in");
-                Request request = new Request();
-                requestList.add(request);
-                String paramName = String.valueOf(param.get("name"));
-                request.setName(paramName);
-                request.setType(param.get("type") == null ? "object" : param.get("type").toString());
-                request.setParamType(String.valueOf(in));
-                // 考虑对象参数类型
-                if (in != null && "body".equals(in)) {
-                    Map<String, Object> schema = (Map) param.get("schema");
-                    Object ref = schema.get("$ref");
-                    // 数组情况另外处理
-                    if (schema.get("type") != null && "array".equals(schema.get("type"))) {
-                        ref = ((Map) schema.get("items")).get("$ref");
-                    }
-                    // Dto对象情况处理
-                    handleDto(definitinMap, requestList, ref, paramName);
-                    request.setParamType(ref == null ? "{}" : ref.toString());
-                }
-                // 是否必填
-                request.setRequire(false);
-                if (param.get("required") != null) {
-                    request.setRequire((Boolean) param.get("required"));
-                }
-                // 参数说明
-                request.setRemark(String.valueOf(param.get("description")));
-                request.setParamType(request.getParamType().replaceAll("#/definitions/", ""));
-                request.setCssType(false);
-            }
+    @Override
+    public Map<String, Object> tableList(SpecSource source, MemoryBudget.Reservation reservation) {
+        if (!source.isShareable()) {
+            return load(source, OperationFilter.ALL, reservation);
         }
-        return requestList;
+        String location = source.getLocation();
+        return inFlight.execute(location, () -> load(source, OperationFilter.ALL, reservation),
+                () -> metrics.coalesced(ConversionMetrics.COALESCED_CONVERT, location));
     }
 
-    private void handleDto(Map<String, ModelAttr> definitinMap, List<Request> requestList, Object ref, String paramName) {
-        if (ref == null) {
-            return;
-        }
-        String str = ref.toString();
-//        System.out.println("definitions:" + str);
-        if (str.indexOf("#/definitions") == -1) {
-            return;
-        }
-        ModelAttr item = definitinMap.get(ref);
-//        System.out.println(item);
-        if (null == item) {
-            return;
-        }
-        Request request = new Request();
-        request.setName("    " + paramName + "详情信息如下");
-        request.setType("--");
-        request.setParamType("--");
-        request.setRemark("--");
-        request.setRequire(false);
-        request.setCssType(true);
-        requestList.add(request);
-        for (ModelAttr mi : item.getProperties()) {
-            Request request1 = new Request();
-            request1.setName(mi.getName());
-            request1.setType(mi.getType());
-            request1.setParamType(mi.getType());
-            request1.setRemark(mi.getDescription());
-            request1.setRequire(false);
-            request1.setCssType(false);
-            requestList.add(request1);
-        }
+    @Override
+    public SpecIndex index(String swaggerUrl, OperationFilter filter, MemoryBudget.Reservation reservation) {
+        SpecSource source = sourceResolver.resolve(swaggerUrl);
+        String variant = INDEX + (filter.isEmpty() ? "" : "?" + filter);
+        Map<String, Object> result = load(source, SpecCache.key(source.getLocation(), variant), (in, fetched) -> {
+            Map<String, Object> resultMap = new HashMap<>();
+            resultMap.put(INDEX, swaggerParser.index(in, filter));
+            return resultMap;
+        }, reservation);
+        return (SpecIndex) result.get(INDEX);
     }
 
+    /**
+     * 部分转换的结果渲染缓存的 key 中带上筛选条件
+     */
+    private Map<String, Object> load(SpecSource source, OperationFilter filter, MemoryBudget.Reservation reservation) {
+        return load(source, SpecCache.key(source.getLocation(), filter.toString()), converter(source, filter), reservation);
+    }
 
     /**
-     * 处理返回码列表
-     * @param responses 全部状态码返回对象
-     * @return
+     * 立即带校验头获取并转换，不合并正在进行的转换，也不使用磁盘上的原文；失败时抛出，不返回上一次的结果
      */
-    private List<Response> processResponseCodeList(Map<String, Object> responses) {
-        List<Response> responseList = new ArrayList<>();
-        Iterator<Map.Entry<String, Object>> resIt = responses.entrySet().iterator();
-        while (resIt.hasNext()) {
-            Map.Entry<String, Object> entry = resIt.next();
-            Response response = new Response();
-            // 状态码 200 201 401 403 404 这样
-            response.setName(entry.getKey());
-            LinkedHashMap<String, Object> statusCodeInfo = (LinkedHashMap) entry.getValue();
-            response.setDescription(String.valueOf(statusCodeInfo.get("description")));
-            Object schema = statusCodeInfo.get("schema");
-            if (schema != null) {
-                Object originalRef = ((LinkedHashMap) schema).get("originalRef");
-                response.setRemark(originalRef == null ? "" : originalRef.toString());
-            }
-            responseList.add(response);
+    @Override
+    public Map<String, Object> refresh(String swaggerUrl, MemoryBudget.Reservation reservation) throws IOException {
+        SpecSource source = sourceResolver.resolve(swaggerUrl);
+        String location = source.getLocation();
+        String cacheKey = SpecCache.key(location, OperationFilter.ALL.toString());
+        try {
+            return fetch(source, cacheKey, specCache.get(cacheKey), converter(source, OperationFilter.ALL), reservation);
+        } catch (IOException | RuntimeException e) {
+            failure(location, e);
+            throw e;
         }
-        return responseList;
     }
 
     /**
-     * 处理返回值
-     * @param responseObj
-     * @return
+     * 解析并转换，同时计算原文摘要。地址和文件的完整转换记录历史版本；
+     * 部分转换的结果不代表整个文档，上传的文件名不能标识同一个文档，都不记录
      */
-    private String processResponseParam(Map<String, Object> responseObj, Map<String, ModelAttr> definitinMap) throws JsonProcessingException {
-        if (responseObj != null && responseObj.get("schema") != null) {
-            Map<String, Object> schema = (Map<String, Object>) responseObj.get("schema");
-            String type = (String) schema.get("type");
-            String ref = null;
-            // 数组
-            if ("array".equals(type)) {
-                Map<String, Object> items = (Map<String, Object>) schema.get("items");
-                if (items != null && items.get("$ref") != null) {
-                    ref = (String) items.get("$ref");
-                }
+    private StageReader converter(SpecSource source, OperationFilter filter) {
+        String location = source.getLocation();
+        return (in, fetched) -> {
+            // 直接在来源的输入流上解析，不再缓存整个 json 字符串和 Map，同时计算内容摘要
+            MessageDigest digest = HashUtils.sha256();
+            CountingInputStream body = new CountingInputStream(in);
+            SwaggerSpec spec = swaggerParser.parse(new DigestInputStream(body, digest), filter);
+            metrics.recordStage(ConversionMetrics.STAGE_PARSE, location, System.nanoTime() - fetched);
+            metrics.recordSpec(location, body.getCount(), spec.getOperations().size(), spec.getDefinitions().size());
+            Map<String, Object> resultMap = specConverter.convert(spec,
+                    nanos -> metrics.recordStage(ConversionMetrics.STAGE_PROCESS, location, nanos));
+            String specHash = HashUtils.toHex(digest.digest());
+            if (filter.isEmpty()) {
+                resultMap.put(SPEC_HASH, specHash);
+            } else {
+                resultMap.put(SPEC_HASH, specHash + "?" + filter);
             }
-            // 对象
-            if (schema.get("$ref") != null) {
-                ref = (String) schema.get("$ref");
+            if (filter.isEmpty() && source.isShareable()) {
+                specHistory.record(location, specHash, (Map<String, String>) resultMap.get(SpecConverter.OPERATION_HASHES),
+                        (Map<String, String>) resultMap.get(SpecConverter.SECTION_HASHES));
             }
-            return setObjectParams(ref, definitinMap);
-        }
-        return StringUtils.EMPTY;
+            return resultMap;
+        };
     }
 
     /**
-     * 处理返回属性列表
-     * @param responseObj
-     * @param definitinMap
-     * @return
+     * 读取来源并解析，按 cacheKey 缓存和重新校验，上游不可用时返回上一次的结果。
+     * 没有校验头的结果在缓存有效期内直接返回，过期后不带校验头重新获取；
+     * 内存中没有时先用磁盘上保存的原文，立即返回并在后台重新校验
+     *
+     * @throws SpecLimitException         文档超过限制且没有上一次的结果
+     * @throws RejectedExecutionException 内存预算不足且没有上一次的结果
      */
-    private ModelAttr processResponseModelAttrs(Map<String, Object> responseObj, Map<String, ModelAttr> definitinMap) {
-        Map<String, Object> schema = (Map<String, Object>) responseObj.get("schema");
-        String type = (String) schema.get("type");
-        String ref = null;
-        //数组
-        if ("array".equals(type)) {
-            Map<String, Object> items = (Map<String, Object>) schema.get("items");
-            if (items != null && items.get("$ref") != null) {
-                ref = (String) items.get("$ref");
-            }
+    private Map<String, Object> load(SpecSource source, String cacheKey, StageReader reader, MemoryBudget.Reservation reservation) {
+        String location = source.getLocation();
+        SpecCacheEntry cached = source.isShareable() ? specCache.get(cacheKey) : null;
+        if (cached != null && !cached.hasValidator()) {
+            return cached.getResult();
         }
-        //对象
-        if (schema.get("$ref") != null) {
-            ref = (String) schema.get("$ref");
+        if (cached == null && source.isShareable() && diskStore.isEnabled()) {
+            SpecCacheEntry restored = restore(source, cacheKey, reader, reservation);
+            if (restored != null) {
+                return restored.getResult();
+            }
         }
-
-        //其他类型
-        ModelAttr modelAttr = new ModelAttr();
-        modelAttr.setType(StringUtils.defaultIfBlank(type, StringUtils.EMPTY));
-
-        if (StringUtils.isNotBlank(ref) && definitinMap.get(ref) != null) {
-            modelAttr = definitinMap.get(ref);
-            ModelAttr modelAttr2 = new ModelAttr();
-            for (ModelAttr subModelAttr : modelAttr.getProperties()) {
-                if (subModelAttr.getName().equals("data")) {
-                    setChildModelAttr2(subModelAttr, ref, definitinMap, modelAttr2);
-                    continue;
-                }
+        try {
+            return fetch(source, cacheKey, cached, reader, reservation);
+        } catch (Exception e) {
+            RuntimeException rejected = rejection(e);
+            if (rejected != null) {
+                log.warn("{} rejected: {}", location, rejected.getMessage());
+            } else {
+                log.error("parse error", e);
+            }
+            failure(location, e);
+            if (cached != null) {
+                // 上游不可用时返回上一次的结果
+                return cached.getResult();
+            }
+            if (rejected != null) {
+                throw rejected;
             }
-            modelAttr.getProperties().addAll(modelAttr2.getProperties());
         }
-        return modelAttr;
+        return new HashMap<>();
     }
 
     /**
-     * 解析Definition
-     * @param map
-     * @return
+     * 带校验头获取并解析，更新缓存，失败时抛出
+     *
+     * @param cached 上一次的结果，304 时直接返回，可以为 null
      */
-    private Map<String, ModelAttr> parseDefinitions(Map<String, Object> map) {
-        Map<String, Map<String, Object>> definitions = (Map<String, Map<String, Object>>) map.get("definitions");
-        Map<String, ModelAttr> definitinMap = new HashMap<>(256);
-        if (definitions != null) {
-            Iterator<String> modelNameIt = definitions.keySet().iterator();
-            while (modelNameIt.hasNext()) {
-                String modeName = modelNameIt.next();
-                Map<String, Object> modeProperties = (Map<String, Object>) definitions.get(modeName).get("properties");
-                if (modeProperties == null) {
-                    continue;
+    private Map<String, Object> fetch(SpecSource source, String cacheKey, SpecCacheEntry cached, StageReader reader,
+                                      MemoryBudget.Reservation reservation) throws IOException {
+        String location = source.getLocation();
+        long start = System.nanoTime();
+        // 边解析边把原文写入磁盘，有校验头时才保存
+        try (DiskStore.ObjectWriter copy = source.isShareable() && diskStore.isEnabled() ? diskStore.newObject() : null) {
+            SpecCacheEntry entry = source.load(cached, (in, length) -> {
+                metrics.recordStage(ConversionMetrics.STAGE_FETCH, location, System.nanoTime() - start);
+                return read(in, length, start, reader, copy, reservation);
+            });
+            if (entry == cached) {
+                metrics.recordStage(ConversionMetrics.STAGE_FETCH, location, System.nanoTime() - start);
+                specCache.markNotModified();
+            } else if (source.isShareable()) {
+                specCache.put(cacheKey, entry);
+                if (copy != null && entry.hasValidator()) {
+                    diskStore.put(DiskStore.specKey(location), copy.commit(), entry.getEtag(), entry.getLastModified());
                 }
-                Iterator<Entry<String, Object>> mIt = modeProperties.entrySet().iterator();
-
-                List<ModelAttr> attrList = new ArrayList<>();
-
-                //解析属性
-                while (mIt.hasNext()) {
-                    Entry<String, Object> mEntry = mIt.next();
-                    Map<String, Object> attrInfoMap = (Map<String, Object>) mEntry.getValue();
-                    ModelAttr modeAttr = new ModelAttr();
-                    modeAttr.setName(mEntry.getKey());
-                    modeAttr.setType((String) attrInfoMap.get("type"));
-                    if (attrInfoMap.get("format") != null) {
-                        modeAttr.setType(modeAttr.getType() + "(" + attrInfoMap.get("format") + ")");
-                    }
-                    modeAttr.setType(StringUtils.defaultIfBlank(modeAttr.getType(), "object"));
-                    modeAttr.setDescription((String) attrInfoMap.get("description"));
-                    attrList.add(modeAttr);
-                }
-
-                ModelAttr modeAttr = new ModelAttr();
-                Object title = definitions.get(modeName).get("title");
-                Object description = definitions.get(modeName).get("description");
-                modeAttr.setClassName(title == null ? "" : title.toString());
-                modeAttr.setDescription(description == null ? "" : description.toString());
-                modeAttr.setProperties(attrList);
-                definitinMap.put("#/definitions/" + modeName, modeAttr);
             }
+            return entry.getResult();
         }
-        return definitinMap;
     }
 
-
-    public String setObjectParams(String ref, Map<String, ModelAttr> definitinMap) throws JsonProcessingException {
-        if (StringUtils.isEmpty(ref)) {
-            return StringUtils.EMPTY;
+    /**
+     * 在限制和请求的内存预留内读取，确实要读取时才追加预留，追加不等待；Content-Length 已经超过限制或预算时不读取直接拒绝
+     *
+     * @param start 开始获取的时间（纳秒）
+     * @param copy  同时写入的副本，可以为 null
+     */
+    private Map<String, Object> read(InputStream in, long length, long start, StageReader reader,
+                                     OutputStream copy, MemoryBudget.Reservation reservation) throws IOException {
+        if (limits.getMaxBytes() > 0 && length > limits.getMaxBytes()) {
+            throw new SpecLimitException("swagger json is larger than " + limits.getMaxBytes() + " bytes");
         }
-        ModelAttr modelAttr = definitinMap.get(ref);
-        if (modelAttr == null || CollectionUtils.isEmpty(modelAttr.getProperties())) {
-            return StringUtils.EMPTY;
+        if (length > 0) {
+            reservation.ensure(length);
         }
-        Map<String, Object> responseMap = new HashMap<>(8);
-        for (ModelAttr subModelAttr : modelAttr.getProperties()) {
-            if (subModelAttr.getName().equals("data")) {
-                setChildModelAttr(subModelAttr, ref, definitinMap, responseMap);
-                continue;
-            }
-            responseMap.put(subModelAttr.getName(), subModelAttr.getType());
-        }
-        return JsonUtils.writeJsonStr(responseMap);
+        long fetched = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(limits.getFetchTimeout());
+        LimitedInputStream limited = new LimitedInputStream(in, limits.getMaxBytes(), deadline, limits.getFetchTimeout(), reservation);
+        return reader.read(copy == null ? limited : new TeeInputStream(limited, copy), fetched);
     }
 
-    private void setChildModelAttr(ModelAttr subModelAttr, String ref, Map<String, ModelAttr> definitinMap, Map<String, Object> responseMap) {
-        if (subModelAttr.getType().equals("array")) {
-            String dtoName = getDtoName(ref);
-            Map<String, Object> responseMap1 = new HashMap<>(8);
-            ModelAttr modelAttr1 = definitinMap.get("#/definitions/" + dtoName);
-            if (modelAttr1 != null && !CollectionUtils.isEmpty(modelAttr1.getProperties())) {
-                for (ModelAttr subModelAttr1 : modelAttr1.getProperties()) {
-                    responseMap1.put(subModelAttr1.getName(), subModelAttr1.getType());
-                }
-                responseMap.put(subModelAttr.getName(), responseMap1);
-            }
-            List<Map<String, Object>> list = new ArrayList<>();
-            list.add(responseMap1);
-            responseMap.put(subModelAttr.getName(), list);
-        } else if (subModelAttr.getType().equals("object")) {
-            String dtoName = getDtoName(ref);
-            Map<String, Object> responseMap1 = new HashMap<>(8);
-            ModelAttr modelAttr1 = definitinMap.get("#/definitions/" + dtoName);
-
-            if (modelAttr1 != null && !CollectionUtils.isEmpty(modelAttr1.getProperties())) {
-                for (ModelAttr subModelAttr1 : modelAttr1.getProperties()) {
-                    responseMap1.put(subModelAttr1.getName(), subModelAttr1.getType());
-                }
-                responseMap.put(subModelAttr.getName(), responseMap1);
-            }
+    /**
+     * 内存预算不足单独计数，不算作解析失败
+     */
+    private void failure(String location, Exception e) {
+        if (rejection(e) instanceof RejectedExecutionException) {
+            metrics.budgetRejected(location);
+        } else {
+            metrics.parseFailure(location, e);
         }
     }
 
-    private void setChildModelAttr2(ModelAttr subModelAttr, String ref, Map<String, ModelAttr> definitinMap, ModelAttr modelAttr) {
-        if (subModelAttr.getType().equals("array") || subModelAttr.getType().equals("object")) {
-            String dtoName = getDtoName(ref);
-            ModelAttr modelAttr1 = definitinMap.get("#/definitions/" + dtoName);
-            if (modelAttr1 != null && !CollectionUtils.isEmpty(modelAttr1.getProperties())) {
-                modelAttr.getProperties().addAll(modelAttr1.getProperties());
+    /**
+     * 超过限制或内存预算不足，解析中抛出时可能被 Jackson 或 RestTemplate 包装
+     *
+     * @return 其他异常时为 null
+     */
+    private static RuntimeException rejection(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SpecLimitException || t instanceof RejectedExecutionException) {
+                return (RuntimeException) t;
             }
         }
+        return null;
     }
 
-
-    public static void main(String[] args) {
-        //匹配大括号
-        String regex = "\\«([^}]*)\\»";
-        String dakuohao = "返回的结果对象«SchemeUserListDto»";
-//        String dakuohao = "返回的结果对象«List«SchemeUserListDto»»";
-        Pattern compile = Pattern.compile(regex);
-        Matcher matcher = compile.matcher(dakuohao);
-        while (matcher.find()) {
-            dakuohao = matcher.group();
+    /**
+     * 用磁盘上保存的原文和校验头重建缓存，然后在转换线程池中带校验头重新获取一次
+     *
+     * @return 没有保存或读取失败时为 null
+     */
+    private SpecCacheEntry restore(SpecSource source, String cacheKey, StageReader reader, MemoryBudget.Reservation reservation) {
+        String key = DiskStore.specKey(source.getLocation());
+        DiskStore.Ref stored = diskStore.get(key);
+        if (stored == null) {
+            return null;
         }
-        dakuohao = dakuohao.substring(1, dakuohao.length() - 1);
-        System.out.println(dakuohao);
-        if (dakuohao.indexOf("«") != -1) {
-            matcher = compile.matcher(dakuohao);
-            while (matcher.find()) {
-                dakuohao = matcher.group();
+        SpecCacheEntry entry = new SpecCacheEntry();
+        try (InputStream in = Files.newInputStream(stored.getPath())) {
+            entry.setResult(read(in, Files.size(stored.getPath()), System.nanoTime(), reader, null, reservation));
+        } catch (Exception e) {
+            RuntimeException rejected = rejection(e);
+            if (rejected instanceof RejectedExecutionException) {
+                // 内存预算不足，原文仍然有效
+                metrics.budgetRejected(source.getLocation());
+                throw rejected;
             }
-            dakuohao = dakuohao.substring(1, dakuohao.length() - 1);
-            System.out.println(dakuohao);
-        }
-
-    }
-
-    private String getDtoName(String ref) {
-        //匹配 «»号
-        String regex = "\\«([^}]*)\\»";
-        Pattern compile = Pattern.compile(regex);
-        Matcher matcher = compile.matcher(ref);
-        while (matcher.find()) {
-            ref = matcher.group();
+            log.warn("restore {} failed", source.getLocation(), e);
+            diskStore.invalidate(key);
+            return null;
         }
-        ref = ref.substring(1, ref.length() - 1);
-        if (ref.indexOf("«") != -1) {
-            matcher = compile.matcher(ref);
-            while (matcher.find()) {
-                ref = matcher.group();
-            }
-            return ref.substring(1, ref.length() - 1);
+        entry.setEtag(stored.getEtag());
+        entry.setLastModified(stored.getLastModified());
+        specCache.put(cacheKey, entry);
+        log.info("restored {} from disk store", cacheKey);
+        try {
+            conversionExecutor.execute(() -> revalidate(source, cacheKey, reader));
+        } catch (RejectedExecutionException e) {
+            // 线程池已满时由下一次请求重新校验
+            log.debug("revalidate {} rejected", cacheKey);
         }
-        return ref;
+        return entry;
     }
 
     /**
-     * 封装请求体
-     * @param list
-     * @param definitinMap
-     * @return
+     * 后台重新校验不属于任何请求，单独预留，预算不足时由下一次请求重新校验
      */
-    private String processRequestParam(List<Request> list, Map<String, ModelAttr> definitinMap) throws IOException {
-        Map<String, Object> paramMap = new HashMap<>(8);
-        if (list != null && list.size() > 0) {
-            for (Request request : list) {
-                String name = request.getName();
-                String type = request.getType();
-                switch (type) {
-                    case "string":
-                        paramMap.put(name, "string");
-                        break;
-                    case "integer":
-                        paramMap.put(name, 0);
-                        break;
-                    case "number":
-                        paramMap.put(name, 0.0);
-                        break;
-                    case "boolean":
-                        paramMap.put(name, true);
-                        break;
-                    case "body":
-                    case "object":
-                        ModelAttr modelAttr = definitinMap.get("#/definitions/" + request.getParamType());
-                        if (modelAttr != null && !CollectionUtils.isEmpty(modelAttr.getProperties())) {
-                            for (ModelAttr subModelAttr : modelAttr.getProperties()) {
-                                paramMap.put(subModelAttr.getName(), subModelAttr.getType());
-                            }
-                            break;
-                        }
-                    default:
-                        paramMap.put(name, null);
-                        break;
-                }
-            }
+    private void revalidate(SpecSource source, String cacheKey, StageReader reader) {
+        try (MemoryBudget.Reservation reservation = memoryBudget.open()) {
+            load(source, cacheKey, reader, reservation);
+        } catch (RejectedExecutionException e) {
+            log.debug("revalidate {} rejected: {}", cacheKey, e.getMessage());
         }
-        return JsonUtils.writeJsonStr(paramMap);
+    }
+
+    @FunctionalInterface
+    private interface StageReader {
+
+        /**
+         * @param fetched 开始读取响应的时间（纳秒）
+         */
+        Map<String, Object> read(InputStream in, long fetched) throws IOException;
     }
 }
@@ -0,0 +1,63 @@
+package org.word.source;
+
+import org.word.cache.SpecCacheEntry;
+import org.word.utils.ByteBufferInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 本地文件，内存映射后直接解析，不经过 http 也不先读成 String
+ * <p>
+ * 以文件大小和修改时间作为校验信息，文件没有变化时直接复用上一次的结果。
+ *
+ * @author XiuYin.Cui
+ */
+public class FileSpecSource implements SpecSource {
+
+    public static final String SCHEME = "file:";
+
+    private final String location;
+
+    private final Path path;
+
+    /**
+     * @param location 原始地址，例如 file:specs/api.json
+     * @param path     地址对应的文件
+     */
+    public FileSpecSource(String location, Path path) {
+        this.location = location;
+        this.path = path;
+    }
+
+    @Override
+    public String getLocation() {
+        return location;
+    }
+
+    @Override
+    public SpecCacheEntry load(SpecCacheEntry cached, SpecReader reader) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            String etag = "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+            if (cached != null && etag.equals(cached.getEtag())) {
+                return cached;
+            }
+            // 单个映射最大 2G，更大的文件退回到普通读取
+            InputStream in = size <= Integer.MAX_VALUE
+                    ? new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, size))
+                    : Channels.newInputStream(channel);
+            SpecCacheEntry fresh = new SpecCacheEntry();
+            fresh.setResult(reader.read(in, size));
+            fresh.setEtag(etag);
+            fresh.setLastModified(lastModified);
+            return fresh;
+        }
+    }
+}
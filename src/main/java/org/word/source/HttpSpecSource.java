@@ -0,0 +1,85 @@
+package org.word.source;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestTemplate;
+import org.word.cache.SpecCacheEntry;
+import org.word.config.AbortableRequestFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 通过 RestTemplate 获取，带 If-None-Match / If-Modified-Since 条件请求，直接在响应流上解析；
+ * 解析失败时断开连接，不读完剩余的响应
+ *
+ * @author XiuYin.Cui
+ */
+public class HttpSpecSource implements SpecSource {
+
+    private final RestTemplate restTemplate;
+
+    private final String url;
+
+    public HttpSpecSource(RestTemplate restTemplate, String url) {
+        this.restTemplate = restTemplate;
+        this.url = url;
+    }
+
+    @Override
+    public String getLocation() {
+        return url;
+    }
+
+    @Override
+    public SpecCacheEntry load(SpecCacheEntry cached, SpecReader reader) {
+        try {
+            return restTemplate.execute(url, HttpMethod.GET, conditionalGet(cached), response -> {
+                // 304 时既不传输也不解析
+                if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    return cached;
+                }
+                SpecCacheEntry fresh = new SpecCacheEntry();
+                try {
+                    // 解析器关闭输入流时会先读完剩余的响应，这里由关闭响应统一处理
+                    fresh.setResult(reader.read(StreamUtils.nonClosing(response.getBody()), response.getHeaders().getContentLength()));
+                } catch (IOException | RuntimeException e) {
+                    // 超过限制或解析失败时直接断开连接，不再读完剩余的响应
+                    AbortableRequestFactory.abortCurrent();
+                    throw e;
+                }
+                fresh.setEtag(response.getHeaders().getETag());
+                fresh.setLastModified(response.getHeaders().getLastModified());
+                return fresh;
+            });
+        } finally {
+            AbortableRequestFactory.clearCurrent();
+        }
+    }
+
+    /**
+     * 有缓存时带上 If-None-Match / If-Modified-Since
+     * @param cached
+     * @return
+     */
+    private RequestCallback conditionalGet(SpecCacheEntry cached) {
+        return request -> {
+            HttpHeaders headers = request.getHeaders();
+            // 只接受 json，避免网关按 Accept 返回其他格式
+            headers.setAccept(Arrays.asList(MediaType.APPLICATION_JSON, MediaType.ALL));
+            if (cached == null) {
+                return;
+            }
+            if (cached.getEtag() != null) {
+                headers.setIfNoneMatch(cached.getEtag());
+            }
+            if (cached.getLastModified() >= 0) {
+                headers.setIfModifiedSince(cached.getLastModified());
+            }
+        };
+    }
+}
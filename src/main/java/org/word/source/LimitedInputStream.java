@@ -0,0 +1,100 @@
+package org.word.source;
+
+import org.word.parser.SpecLimitException;
+import org.word.utils.MemoryBudget;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 读取时检查字节数和截止时间，超过时抛出 {@link SpecLimitException}，同时按读取的字节数追加内存预算
+ * <p>
+ * 上游很慢时每次读取都不超过读取超时，但总时间没有上限，所以每次读取后检查截止时间。
+ *
+ * @author XiuYin.Cui
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+
+    private final long deadline;
+
+    private final long timeoutMillis;
+
+    private final MemoryBudget.Reservation reservation;
+
+    private long count;
+
+    /**
+     * @param maxBytes      最大字节数，0 表示不限制
+     * @param deadline      截止时间（System.nanoTime），timeoutMillis 为 0 时不检查
+     * @param timeoutMillis 只用于错误信息
+     * @param reservation   内存预留，可以为 null
+     */
+    public LimitedInputStream(InputStream in, long maxBytes, long deadline, long timeoutMillis,
+                              MemoryBudget.Reservation reservation) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.deadline = deadline;
+        this.timeoutMillis = timeoutMillis;
+        this.reservation = reservation;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b != -1) {
+            check(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            check(n);
+        }
+        return n;
+    }
+
+    /**
+     * 跳过的内容同样计数，这里按读取处理
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    private void check(int n) {
+        count += n;
+        if (maxBytes > 0 && count > maxBytes) {
+            throw new SpecLimitException("swagger json is larger than " + maxBytes + " bytes");
+        }
+        if (timeoutMillis > 0 && System.nanoTime() - deadline > 0) {
+            throw new SpecLimitException("fetching swagger json took longer than " + timeoutMillis + " ms");
+        }
+        if (reservation != null) {
+            reservation.ensure(count);
+        }
+    }
+}
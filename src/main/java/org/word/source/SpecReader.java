@@ -0,0 +1,19 @@
+package org.word.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * 在来源的输入流上解析文档，输入流由来源负责关闭
+ *
+ * @author XiuYin.Cui
+ */
+@FunctionalInterface
+public interface SpecReader {
+
+    /**
+     * @param length 内容长度，未知时为 -1，用于在读取之前拒绝过大的文档
+     */
+    Map<String, Object> read(InputStream in, long length) throws IOException;
+}
@@ -0,0 +1,34 @@
+package org.word.source;
+
+import org.word.cache.SpecCacheEntry;
+
+import java.io.IOException;
+
+/**
+ * swagger json 的来源：http 地址、本地文件或上传的文件
+ *
+ * @author XiuYin.Cui
+ */
+public interface SpecSource {
+
+    /**
+     * 来源标识，作为解析缓存、历史版本和监控的 key
+     */
+    String getLocation();
+
+    /**
+     * 相同 location 的结果能否缓存，并在并发请求间共享
+     */
+    default boolean isShareable() {
+        return true;
+    }
+
+    /**
+     * 读取并解析文档
+     *
+     * @param cached 上一次的结果，可以为 null
+     * @param reader 在来源的输入流上解析
+     * @return 内容没有变化时直接返回 cached；没有校验信息的结果只在缓存有效期内使用，过期后重新获取
+     */
+    SpecCacheEntry load(SpecCacheEntry cached, SpecReader reader) throws IOException;
+}
@@ -0,0 +1,103 @@
+package org.word.source;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 按地址选择来源，http(s) 走 RestTemplate，file: 只允许读取 swagger.source.file-roots 下的文件
+ *
+ * @author XiuYin.Cui
+ */
+@Component
+public class SpecSourceResolver {
+
+    private final RestTemplate restTemplate;
+
+    private final List<Path> fileRoots = new ArrayList<>();
+
+    public SpecSourceResolver(RestTemplate restTemplate,
+                              @Value("${swagger.source.file-roots:}") String[] fileRoots) {
+        this.restTemplate = restTemplate;
+        for (String root : fileRoots) {
+            if (StringUtils.isNotBlank(root)) {
+                this.fileRoots.add(realPath(Paths.get(root.trim())));
+            }
+        }
+    }
+
+    private static Path realPath(Path path) {
+        try {
+            return path.toRealPath();
+        } catch (IOException e) {
+            return path.toAbsolutePath().normalize();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException 不支持的地址或不在允许目录下的文件
+     */
+    public SpecSource resolve(String location) {
+        if (StringUtils.startsWithIgnoreCase(location, "http://") || StringUtils.startsWithIgnoreCase(location, "https://")) {
+            return new HttpSpecSource(restTemplate, normalize(location));
+        }
+        if (StringUtils.startsWithIgnoreCase(location, FileSpecSource.SCHEME)) {
+            return new FileSpecSource(location, allowedPath(location));
+        }
+        throw new IllegalArgumentException("unsupported swagger location: " + location);
+    }
+
+    /**
+     * 规范化 http 地址，写法不同的同一地址共用缓存和并发合并：
+     * scheme 和 host 转小写，去掉默认端口、片段和路径中的 . 与 ..，无法解析时原样返回
+     */
+    public static String normalize(String url) {
+        try {
+            URI uri = new URI(url.trim()).normalize();
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443)) {
+                port = -1;
+            }
+            if (uri.getHost() == null) {
+                // 例如带下划线的主机名，不是合法的 server authority
+                return url;
+            }
+            String host = uri.getHost().toLowerCase(Locale.ROOT);
+            String path = StringUtils.defaultIfEmpty(uri.getRawPath(), "/");
+            return new URI(scheme, uri.getRawUserInfo(), host, port, null, null, null).toString()
+                    + path + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        } catch (URISyntaxException | RuntimeException e) {
+            return url;
+        }
+    }
+
+    private Path allowedPath(String location) {
+        Path path;
+        try {
+            path = location.startsWith("file://")
+                    ? Paths.get(URI.create(location))
+                    : Paths.get(location.substring(FileSpecSource.SCHEME.length()));
+            // 解析符号链接，防止通过链接读到允许目录以外的文件
+            path = path.toRealPath();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("swagger file not found: " + location);
+        }
+        for (Path root : fileRoots) {
+            if (path.startsWith(root)) {
+                return path;
+            }
+        }
+        throw new IllegalArgumentException("swagger file is outside swagger.source.file-roots: " + location);
+    }
+}
@@ -0,0 +1,46 @@
+package org.word.source;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.word.cache.SpecCacheEntry;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 上传的文件，直接在上传流上解析，结果不缓存
+ *
+ * @author XiuYin.Cui
+ */
+public class UploadSpecSource implements SpecSource {
+
+    public static final String SCHEME = "upload:";
+
+    private final MultipartFile file;
+
+    public UploadSpecSource(MultipartFile file) {
+        this.file = file;
+    }
+
+    @Override
+    public String getLocation() {
+        return SCHEME + StringUtils.defaultIfBlank(file.getOriginalFilename(), file.getName());
+    }
+
+    /**
+     * 不同的上传可能同名
+     */
+    @Override
+    public boolean isShareable() {
+        return false;
+    }
+
+    @Override
+    public SpecCacheEntry load(SpecCacheEntry cached, SpecReader reader) throws IOException {
+        SpecCacheEntry fresh = new SpecCacheEntry();
+        try (InputStream in = file.getInputStream()) {
+            fresh.setResult(reader.read(in, file.getSize()));
+        }
+        return fresh;
+    }
+}
@@ -0,0 +1,36 @@
+package org.word.utils;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 两个列表首尾相接的只读视图，不拷贝元素
+ *
+ * @author XiuYin.Cui
+ */
+public class ConcatList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 4310576392749145021L;
+
+    private final List<? extends E> head;
+
+    private final List<? extends E> tail;
+
+    public ConcatList(List<? extends E> head, List<? extends E> tail) {
+        this.head = head;
+        this.tail = tail;
+    }
+
+    @Override
+    public E get(int index) {
+        int headSize = head.size();
+        return index < headSize ? head.get(index) : tail.get(index - headSize);
+    }
+
+    @Override
+    public int size() {
+        return head.size() + tail.size();
+    }
+}
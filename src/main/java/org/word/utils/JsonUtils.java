@@ -11,6 +11,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -51,6 +52,13 @@ public class JsonUtils {
         return objectMapper.readTree(jsonStr);
     }
 
+    /**
+     * 基于同一个 ObjectMapper 创建流式解析器，可在流上按需 readValueAs 子树
+     */
+    public static JsonParser createParser(InputStream in) throws IOException {
+        return objectMapper.getFactory().createParser(in);
+    }
+
     public static String writeJsonStr(Object obj) throws JsonProcessingException {
         return objectMapper.writeValueAsString(obj);
     }
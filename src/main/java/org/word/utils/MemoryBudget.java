@@ -0,0 +1,117 @@
+package org.word.utils;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 所有正在进行的转换共享的内存预算，按读取的字节数乘以系数估算转换占用的内存
+ * <p>
+ * 请求开始时只创建一个空的预留，不占用预算；确实要读取文档时才按内容长度和已读取的字节数追加。
+ * 追加从不等待，预算不足时直接拒绝，不会在持有连接或请求线程时排队；命中缓存和共用其他请求转换结果的请求不占用预算。
+ * 预留一直持有到渲染结束，拒绝时抛出 {@link RejectedExecutionException}。
+ *
+ * @author XiuYin.Cui
+ */
+public class MemoryBudget {
+
+    private static final long KB = 1024;
+
+    /**
+     * 每次至少追加 1M 对应的预算
+     */
+    private static final long STEP = 1024 * KB;
+
+    /**
+     * 以 KB 为单位的许可
+     */
+    private final Semaphore permits;
+
+    private final int total;
+
+    private final int factor;
+
+    /**
+     * @param budget 预算，字节
+     * @param factor 每读取一个字节估算占用的内存字节数
+     */
+    public MemoryBudget(long budget, int factor) {
+        this.total = (int) Math.min(Integer.MAX_VALUE, Math.max(1, budget / KB));
+        this.factor = factor;
+        this.permits = new Semaphore(total);
+    }
+
+    /**
+     * 空的预留，读取时通过 {@link Reservation#ensure(long)} 追加
+     */
+    public Reservation open() {
+        return new Reservation();
+    }
+
+    /**
+     * 预算总量，KB
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * 剩余预算，KB
+     */
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    private int toKb(long bytes) {
+        return (int) Math.min(total, (Math.max(bytes, STEP) * factor + KB - 1) / KB);
+    }
+
+    /**
+     * 一次请求的预留，读取和渲染可能在不同线程中，渲染结束后关闭归还，重复关闭没有影响
+     */
+    public class Reservation implements AutoCloseable {
+
+        private int held;
+
+        private boolean closed;
+
+        private Reservation() {
+        }
+
+        /**
+         * 将要读取或已读取 bytes 个字节，预留不足时追加，不等待
+         *
+         * @throws RejectedExecutionException 预算不足
+         */
+        public synchronized void ensure(long bytes) {
+            // 已经关闭（例如请求已经超时）时不再追加；已经占用全部预算时只能单独进行，不再追加
+            if (closed || held >= total || bytes * factor <= held * KB) {
+                return;
+            }
+            int more = toKb(bytes + STEP) - held;
+            if (more <= 0) {
+                return;
+            }
+            if (!permits.tryAcquire(more)) {
+                throw new RejectedExecutionException("memory budget exhausted");
+            }
+            held += more;
+        }
+
+        /**
+         * 当前占用的预算，KB
+         */
+        public synchronized int getHeld() {
+            return held;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            permits.release(held);
+            held = 0;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.word.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 合并相同 key 的并发调用：同一时刻只有第一个调用真正执行，其余调用等待并共享它的结果或异常。
+ * 执行结束后立即移除，之后的调用会重新执行，不做缓存。
+ *
+ * @author XiuYin.Cui
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 等待并共享结果的调用次数
+     */
+    private final AtomicLong shared = new AtomicLong();
+
+    /**
+     * @param key      相同 key 的并发调用会被合并
+     * @param call     实际执行的调用
+     * @param onShared 本次调用共享了其他调用的结果时回调，可以为 null
+     * @return
+     * @throws E 执行的调用抛出的异常，等待的调用会收到同一个异常，所以同一个实例的调用应抛出同一类异常
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Exception> V execute(K key, Call<V, E> call, Runnable onShared) throws E {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, future);
+        if (inFlight != null) {
+            shared.incrementAndGet();
+            if (onShared != null) {
+                onShared.run();
+            }
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw (E) cause;
+            }
+        }
+        try {
+            V value = call.call();
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, future);
+        }
+    }
+
+    /**
+     * 异步执行，等待的调用不占用线程，直接拿到同一个 future
+     *
+     * @param executor 执行调用的线程池
+     * @throws java.util.concurrent.RejectedExecutionException 线程池已满
+     */
+    public CompletableFuture<V> submit(K key, Supplier<V> call, Executor executor, Runnable onShared) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, future);
+        if (inFlight != null) {
+            shared.incrementAndGet();
+            if (onShared != null) {
+                onShared.run();
+            }
+            return inFlight;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    calls.remove(key, future);
+                }
+            });
+        } catch (RuntimeException e) {
+            calls.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        return future;
+    }
+
+    public long getShared() {
+        return shared.get();
+    }
+
+    /**
+     * 正在执行的调用数
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    @FunctionalInterface
+    public interface Call<V, E extends Exception> {
+
+        V call() throws E;
+    }
+}
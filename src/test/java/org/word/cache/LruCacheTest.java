@@ -0,0 +1,87 @@
+package org.word.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 按条目数、权重和写入时间淘汰
+ *
+ * @author XiuYin.Cui
+ */
+public class LruCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        LruCache<String, Integer> cache = new LruCache<>(2, 0, TimeUnit.MILLISECONDS);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        cache.put("c", 3);
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    public void evictsByWeight() {
+        List<String> evicted = new ArrayList<>();
+        LruCache<String, String> cache = new LruCache<>(10, 0, TimeUnit.MILLISECONDS, String::length,
+                (key, value) -> evicted.add(key));
+        cache.put("a", "12345");
+        cache.put("b", "1234");
+        cache.put("c", "123");
+        assertEquals(7, cache.weight());
+        assertEquals(1, evicted.size());
+        assertEquals("a", evicted.get(0));
+        // 替换时按新值重新计算权重
+        cache.put("b", "1");
+        assertEquals(4, cache.weight());
+    }
+
+    @Test
+    public void expiresAfterTtl() throws InterruptedException {
+        List<String> evicted = new ArrayList<>();
+        LruCache<String, Integer> cache = new LruCache<>(10, 20, TimeUnit.MILLISECONDS, value -> 1L,
+                (key, value) -> evicted.add(key));
+        cache.put("a", 1);
+        Thread.sleep(50);
+        assertNull(cache.get("a"));
+        assertEquals(1, evicted.size());
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    public void invalidateDoesNotNotifyListener() {
+        List<String> evicted = new ArrayList<>();
+        LruCache<String, Integer> cache = new LruCache<>(10, 0, TimeUnit.MILLISECONDS, value -> 1L,
+                (key, value) -> evicted.add(key));
+        cache.put("u", 1);
+        cache.put("u#index", 2);
+        cache.put("v", 3);
+        assertEquals(Integer.valueOf(1), cache.invalidate("u"));
+        assertEquals(1, cache.invalidateIf(key -> key.startsWith("u#")));
+        assertEquals(1, cache.weight());
+        assertTrue(evicted.isEmpty());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        LruCache<String, Integer> cache = new LruCache<>(10, 0, TimeUnit.MILLISECONDS);
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+}
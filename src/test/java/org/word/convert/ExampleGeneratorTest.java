@@ -0,0 +1,73 @@
+package org.word.convert;
+
+import org.junit.Test;
+import org.word.parser.DefinitionIndex;
+import org.word.parser.SwaggerParser;
+import org.word.utils.JsonUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 示例 json：循环引用、按深度缩短和按属性截断
+ *
+ * @author XiuYin.Cui
+ */
+public class ExampleGeneratorTest {
+
+    private static final String CYCLE = "{\"definitions\":{"
+            + "\"UserDto\":{\"properties\":{\"id\":{\"type\":\"integer\"},\"dept\":{\"$ref\":\"#/definitions/DeptDto\"}}},"
+            + "\"DeptDto\":{\"properties\":{\"name\":{\"type\":\"string\"},"
+            + "\"users\":{\"type\":\"array\",\"items\":{\"$ref\":\"#/definitions/UserDto\"}}}}}}";
+
+    @Test
+    public void cycleEndsWithModelName() throws IOException {
+        DefinitionIndex index = index(CYCLE);
+        String json = new ExampleGenerator().example(index.getByName("UserDto"));
+        assertEquals("{\"id\":\"integer\",\"dept\":{\"name\":\"string\",\"users\":[\"UserDto\"]}}", json);
+    }
+
+    @Test
+    public void reducesDepthToFitMaxLength() throws IOException {
+        DefinitionIndex index = index(CYCLE);
+        String full = new ExampleGenerator().example(index.getByName("DeptDto"));
+        String shallow = new ExampleGenerator(5, full.length() - 1).example(index.getByName("DeptDto"));
+        assertEquals("{\"name\":\"string\",\"users\":[\"UserDto\"]}", shallow);
+    }
+
+    @Test
+    public void truncatesWideModel() throws IOException {
+        StringBuilder sb = new StringBuilder("{\"definitions\":{\"Wide\":{\"properties\":{");
+        for (int i = 0; i < 500; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("\"field").append(i).append("\":{\"type\":\"string\"}");
+        }
+        sb.append("}}}}");
+        DefinitionIndex.Node node = index(sb.toString()).getByName("Wide");
+        ExampleGenerator generator = new ExampleGenerator(5, 1024);
+
+        String json = generator.example(node);
+        assertTrue(json.length() <= 1024);
+        Map<?, ?> example = JsonUtils.readValue(json, Map.class);
+        assertTrue(example.containsKey("field0"));
+        assertEquals("省略 " + (500 - example.size() + 1) + " 个属性", example.get(ExampleGenerator.OMITTED));
+
+        // 截断结果按模型和深度缓存
+        assertSame(json, generator.example(node));
+        Map<String, Object> properties = generator.properties(node);
+        assertSame(properties, generator.properties(node));
+        assertEquals(example.size(), properties.size());
+    }
+
+    private static DefinitionIndex index(String json) throws IOException {
+        return new SwaggerParser().parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))).getIndex();
+    }
+}
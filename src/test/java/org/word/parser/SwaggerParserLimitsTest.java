@@ -0,0 +1,114 @@
+package org.word.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.Test;
+import org.word.utils.JsonUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 解析限制：嵌套层数、接口数和模型数
+ *
+ * @author XiuYin.Cui
+ */
+public class SwaggerParserLimitsTest {
+
+    private static final String PATHS = "{\"paths\":{"
+            + "\"/a\":{\"parameters\":[],\"x-extra\":1,\"get\":{\"tags\":[\"a\"]},\"post\":{\"tags\":[\"a\"]}},"
+            + "\"/b\":{\"$ref\":\"#/x\",\"get\":{\"tags\":[\"b\"]}}}}";
+
+    @Test
+    public void countsEachMethodAsAnOperation() throws IOException {
+        SwaggerSpec spec = parser(0, 3, 0).parse(stream(PATHS));
+        assertEquals(2, spec.getOperations().size());
+        assertLimit(parser(0, 2, 0), PATHS, "more than 2 operations");
+    }
+
+    @Test
+    public void countsOperationsSkippedByFilter() {
+        OperationFilter filter = OperationFilter.of(null, "/b", null);
+        try {
+            parser(0, 2, 0).parse(stream(PATHS), filter);
+            fail("expected SpecLimitException");
+        } catch (SpecLimitException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("operations"));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void indexCountsOperationsToo() {
+        try {
+            parser(0, 2, 0).index(stream(PATHS), OperationFilter.ALL);
+            fail("expected SpecLimitException");
+        } catch (SpecLimitException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("operations"));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void limitsDefinitions() throws IOException {
+        String json = "{\"definitions\":{"
+                + "\"A\":{\"properties\":{\"id\":{\"type\":\"string\"}}},"
+                + "\"B\":{\"properties\":{\"id\":{\"type\":\"string\"}}}}}";
+        assertEquals(2, parser(0, 0, 2).parse(stream(json)).getDefinitions().size());
+        assertLimit(parser(0, 0, 1), json, "more than 1 definitions");
+    }
+
+    @Test
+    public void limitsDepthInSkippedSubtrees() throws IOException {
+        String json = "{\"x-vendor\":" + nested(10) + ",\"paths\":{}}";
+        parser(11, 0, 0).parse(stream(json));
+        assertLimit(parser(10, 0, 0), json, "deeper than 10 levels");
+    }
+
+    @Test
+    public void depthLimitedParserCountsSkipChildren() throws IOException {
+        try (JsonParser parser = new DepthLimitedParser(JsonUtils.createParser(stream(nested(3))), 3)) {
+            assertEquals(JsonToken.START_ARRAY, parser.nextToken());
+            parser.skipChildren();
+            assertEquals(JsonToken.END_ARRAY, parser.currentToken());
+        }
+        try (JsonParser parser = new DepthLimitedParser(JsonUtils.createParser(stream(nested(4))), 3)) {
+            parser.nextToken();
+            parser.skipChildren();
+            fail("expected SpecLimitException");
+        } catch (SpecLimitException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("deeper than 3"));
+        }
+    }
+
+    private static SwaggerParser parser(int maxDepth, int maxOperations, int maxDefinitions) {
+        return new SwaggerParser(true, new ParseLimits(maxDepth, maxOperations, maxDefinitions));
+    }
+
+    private static void assertLimit(SwaggerParser parser, String json, String message) {
+        try {
+            parser.parse(stream(json));
+            fail("expected SpecLimitException");
+        } catch (SpecLimitException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String nested(int depth) {
+        return String.join("", Collections.nCopies(depth, "[")) + String.join("", Collections.nCopies(depth, "]"));
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,55 @@
+package org.word.parser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Springfox 泛型类名的解析
+ *
+ * @author XiuYin.Cui
+ */
+public class TypeNameTest {
+
+    @Test
+    public void plainName() {
+        TypeName type = TypeName.parse("UserDto");
+        assertEquals("UserDto", type.getName());
+        assertFalse(type.isGeneric());
+        assertNull(type.payload());
+    }
+
+    @Test
+    public void nestedArguments() {
+        TypeName type = TypeName.parse("Result«List«UserDto»»");
+        assertEquals("Result", type.getName());
+        assertEquals("List«UserDto»", type.lastArgument().toString());
+        assertEquals("UserDto", type.payload().toString());
+        assertEquals("Result«List«UserDto»»", type.toString());
+    }
+
+    @Test
+    public void multipleArguments() {
+        TypeName type = TypeName.parse("Result«Map«string,UserDto»»");
+        TypeName map = type.lastArgument();
+        assertEquals(2, map.getArguments().size());
+        assertEquals("string", map.getArguments().get(0).getName());
+        assertEquals("UserDto", type.payload().getName());
+        assertEquals("Result«Map«string,UserDto»»", type.toString());
+    }
+
+    @Test
+    public void payloadUnwrapsAtMostTwoLevels() {
+        assertEquals("Page«UserDto»", TypeName.parse("Result«List«Page«UserDto»»»").payload().toString());
+    }
+
+    @Test
+    public void incompleteNameKeepsWhatWasParsed() {
+        TypeName type = TypeName.parse("Result«List«UserDto");
+        assertTrue(type.isGeneric());
+        assertEquals("UserDto", type.payload().getName());
+    }
+}
@@ -0,0 +1,89 @@
+package org.word.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 读取时才追加预留，预算不足时立即拒绝
+ *
+ * @author XiuYin.Cui
+ */
+public class MemoryBudgetTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    public void openHoldsNothing() {
+        MemoryBudget budget = new MemoryBudget(16 * MB, 1);
+        try (MemoryBudget.Reservation reservation = budget.open()) {
+            assertEquals(0, reservation.getHeld());
+            assertEquals(budget.getTotal(), budget.getAvailable());
+        }
+    }
+
+    @Test
+    public void ensureGrowsOnlyWhenNeeded() {
+        MemoryBudget budget = new MemoryBudget(16 * MB, 1);
+        MemoryBudget.Reservation reservation = budget.open();
+        reservation.ensure(MB);
+        // 按读取量加 1M 的余量预留
+        assertEquals(2048, reservation.getHeld());
+        reservation.ensure(MB + 1);
+        assertEquals(2048, reservation.getHeld());
+        reservation.ensure(3 * MB);
+        assertEquals(4096, reservation.getHeld());
+        assertEquals(budget.getTotal() - 4096, budget.getAvailable());
+        reservation.close();
+        assertEquals(budget.getTotal(), budget.getAvailable());
+    }
+
+    @Test
+    public void rejectsWithoutWaitingWhenExhausted() {
+        MemoryBudget budget = new MemoryBudget(16 * MB, 1);
+        MemoryBudget.Reservation first = budget.open();
+        first.ensure(15 * MB);
+        assertEquals(0, budget.getAvailable());
+        MemoryBudget.Reservation second = budget.open();
+        long start = System.nanoTime();
+        try {
+            second.ensure(1);
+            fail("expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            assertTrue(System.nanoTime() - start < 1000 * 1000 * 1000L);
+        }
+        assertEquals(0, second.getHeld());
+        first.close();
+        second.ensure(1);
+        assertEquals(1025, second.getHeld());
+        second.close();
+    }
+
+    @Test
+    public void closeIsIdempotentAndStopsGrowing() {
+        MemoryBudget budget = new MemoryBudget(16 * MB, 1);
+        MemoryBudget.Reservation reservation = budget.open();
+        reservation.ensure(MB);
+        reservation.close();
+        reservation.close();
+        reservation.ensure(8 * MB);
+        assertEquals(0, reservation.getHeld());
+        assertEquals(budget.getTotal(), budget.getAvailable());
+    }
+
+    @Test
+    public void singleReservationIsCappedAtTotal() {
+        MemoryBudget budget = new MemoryBudget(16 * MB, 10);
+        try (MemoryBudget.Reservation reservation = budget.open()) {
+            reservation.ensure(100 * MB);
+            assertEquals(budget.getTotal(), reservation.getHeld());
+            // 已经占用全部预算时继续读取不再追加，也不拒绝
+            reservation.ensure(200 * MB);
+            assertEquals(budget.getTotal(), reservation.getHeld());
+        }
+    }
+}
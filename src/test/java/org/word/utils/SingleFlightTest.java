@@ -0,0 +1,98 @@
+package org.word.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 相同 key 的并发调用只执行一次
+ *
+ * @author XiuYin.Cui
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void concurrentCallsShareOneExecution() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger sharedCallbacks = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = executor.submit(() -> flight.execute("k", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "v";
+            }, sharedCallbacks::incrementAndGet));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> waiter = executor.submit(() -> flight.execute("k", () -> {
+                calls.incrementAndGet();
+                return "other";
+            }, sharedCallbacks::incrementAndGet));
+            while (flight.getShared() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            assertEquals("v", leader.get(5, TimeUnit.SECONDS));
+            assertEquals("v", waiter.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+            assertEquals(1, sharedCallbacks.get());
+            assertEquals(0, flight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failureIsRethrownAndNotKept() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        try {
+            flight.execute("k", () -> {
+                throw new IOException("boom");
+            }, null);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertEquals("boom", e.getMessage());
+        }
+        assertEquals(0, flight.inFlight());
+        assertEquals("v", flight.execute("k", () -> "v", null));
+    }
+
+    @Test
+    public void submitReturnsTheInFlightFuture() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<String> first = flight.submit("k", () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "v";
+            }, executor, null);
+            CompletableFuture<String> second = flight.submit("k", () -> "other", executor, null);
+            assertSame(first, second);
+            release.countDown();
+            assertEquals("v", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, flight.getShared());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}